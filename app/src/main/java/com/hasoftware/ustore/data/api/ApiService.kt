@@ -14,6 +14,10 @@ interface ApiService {
     @POST("auth/signup")
     suspend fun signUp(@Body signupRequest: SignupRequest): Response<MessageResponse>
     
+    // Home feed: featured, new, best sellers and categories in one response
+    @GET("home")
+    suspend fun getHomeFeed(): Response<HomeFeedResponse>
+    
     // Products
     @GET("products")
     suspend fun getProducts(
@@ -21,6 +25,13 @@ interface ApiService {
         @Query("size") size: Int = 20
     ): Response<ProductsResponse>
     
+    // Keyset pagination: pass an empty cursor for the first slice, then nextCursor until it is null
+    @GET("products/active")
+    suspend fun getActiveProductsSlice(
+        @Query("cursor") cursor: String = "",
+        @Query("size") size: Int = 20
+    ): Response<ProductsSliceResponse>
+    
     @GET("products/{id}")
     suspend fun getProductById(@Path("id") id: Long): Response<Product>
     
@@ -31,6 +42,12 @@ interface ApiService {
         @Query("size") size: Int = 20
     ): Response<ProductsResponse>
     
+    @GET("products/suggest")
+    suspend fun suggest(
+        @Query("prefix") prefix: String,
+        @Query("limit") limit: Int = 10
+    ): Response<List<Suggestion>>
+    
     @GET("products/category/{categoryId}")
     suspend fun getProductsByCategory(
         @Path("categoryId") categoryId: Long,
@@ -38,6 +55,13 @@ interface ApiService {
         @Query("size") size: Int = 20
     ): Response<ProductsResponse>
     
+    @GET("products/category/{categoryId}")
+    suspend fun getProductsByCategorySlice(
+        @Path("categoryId") categoryId: Long,
+        @Query("cursor") cursor: String = "",
+        @Query("size") size: Int = 20
+    ): Response<ProductsSliceResponse>
+    
     @GET("products/featured")
     suspend fun getFeaturedProducts(
         @Query("page") page: Int = 0,
@@ -88,6 +112,13 @@ data class MessageResponse(
     val message: String
 )
 
+data class Suggestion(
+    val text: String,
+    val type: String,
+    val id: Long? = null,
+    val weight: Long = 0
+)
+
 data class ProductsResponse(
     val content: List<Product>,
     val totalElements: Long,
@@ -95,3 +126,18 @@ data class ProductsResponse(
     val size: Int,
     val number: Int
 )
+
+data class HomeFeedResponse(
+    val featured: List<Product> = emptyList(),
+    val newProducts: List<Product> = emptyList(),
+    val bestSellers: List<Product> = emptyList(),
+    val categories: List<Category> = emptyList(),
+    val missingSections: List<String> = emptyList()
+)
+
+data class ProductsSliceResponse(
+    val content: List<Product>,
+    val size: Int,
+    val last: Boolean,
+    val nextCursor: String? = null
+)
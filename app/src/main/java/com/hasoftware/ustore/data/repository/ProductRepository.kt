@@ -1,7 +1,10 @@
 package com.hasoftware.ustore.data.repository
 
 import android.util.Log
+import com.hasoftware.ustore.data.api.HomeFeedResponse
+import com.hasoftware.ustore.data.api.ProductsSliceResponse
 import com.hasoftware.ustore.data.api.RetrofitClient
+import com.hasoftware.ustore.data.api.Suggestion
 import com.hasoftware.ustore.data.model.Product
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.delay
@@ -124,6 +127,56 @@ class ProductRepository {
         }
     }
     
+    suspend fun getHomeFeed(): Result<HomeFeedResponse> {
+        return withContext(Dispatchers.IO) {
+            try {
+                val response = apiService.getHomeFeed()
+                if (response.isSuccessful) {
+                    Result.success(response.body() ?: throw Exception("Empty home feed"))
+                } else {
+                    Result.failure(Exception("Failed to fetch home feed: ${response.code()}"))
+                }
+            } catch (e: Exception) {
+                Result.failure(e)
+            }
+        }
+    }
+    
+    // Next slice of active products after the given cursor (null for the first slice)
+    suspend fun getActiveProductsSlice(cursor: String?, size: Int = 20): Result<ProductsSliceResponse> {
+        return withContext(Dispatchers.IO) {
+            try {
+                val response = apiService.getActiveProductsSlice(cursor ?: "", size)
+                if (response.isSuccessful) {
+                    Result.success(response.body() ?: ProductsSliceResponse(emptyList(), size, true))
+                } else {
+                    Result.failure(Exception("Failed to fetch products: ${response.code()}"))
+                }
+            } catch (e: Exception) {
+                Result.failure(e)
+            }
+        }
+    }
+    
+    suspend fun getProductsByCategorySlice(
+        categoryId: Long,
+        cursor: String?,
+        size: Int = 20
+    ): Result<ProductsSliceResponse> {
+        return withContext(Dispatchers.IO) {
+            try {
+                val response = apiService.getProductsByCategorySlice(categoryId, cursor ?: "", size)
+                if (response.isSuccessful) {
+                    Result.success(response.body() ?: ProductsSliceResponse(emptyList(), size, true))
+                } else {
+                    Result.failure(Exception("Failed to fetch products by category: ${response.code()}"))
+                }
+            } catch (e: Exception) {
+                Result.failure(e)
+            }
+        }
+    }
+    
     suspend fun getProductById(id: Long): Result<Product> {
         return withContext(Dispatchers.IO) {
             try {
@@ -154,6 +207,21 @@ class ProductRepository {
         }
     }
     
+    suspend fun suggest(prefix: String, limit: Int = 10): Result<List<Suggestion>> {
+        return withContext(Dispatchers.IO) {
+            try {
+                val response = apiService.suggest(prefix, limit)
+                if (response.isSuccessful) {
+                    Result.success(response.body() ?: emptyList())
+                } else {
+                    Result.failure(Exception("Failed to fetch suggestions: ${response.code()}"))
+                }
+            } catch (e: Exception) {
+                Result.failure(e)
+            }
+        }
+    }
+    
     suspend fun getProductsByCategory(categoryId: Long, page: Int = 0, size: Int = 20): Result<List<Product>> {
         return withContext(Dispatchers.IO) {
             try {
@@ -31,17 +31,53 @@ fun HomeScreen(
     
     var featuredProducts by remember { mutableStateOf<List<Product>>(emptyList()) }
     var newProducts by remember { mutableStateOf<List<Product>>(emptyList()) }
+    var bestSellers by remember { mutableStateOf<List<Product>>(emptyList()) }
     var isLoading by remember { mutableStateOf(true) }
     var errorMessage by remember { mutableStateOf<String?>(null) }
     
+    // Infinite scroll over all active products, one cursor slice at a time
+    var allProducts by remember { mutableStateOf<List<Product>>(emptyList()) }
+    var nextCursor by remember { mutableStateOf<String?>(null) }
+    var hasMoreProducts by remember { mutableStateOf(true) }
+    var isLoadingMore by remember { mutableStateOf(false) }
+    
+    fun loadMoreProducts() {
+        if (isLoadingMore || !hasMoreProducts) return
+        isLoadingMore = true
+        scope.launch {
+            productRepository.getActiveProductsSlice(nextCursor, 20)
+                .onSuccess { slice ->
+                    allProducts = allProducts + slice.content
+                    nextCursor = slice.nextCursor
+                    hasMoreProducts = slice.nextCursor != null
+                }
+                .onFailure { hasMoreProducts = false }
+            isLoadingMore = false
+        }
+    }
+    
     LaunchedEffect(Unit) {
         scope.launch {
             try {
-                val featuredResult = productRepository.getFeaturedProducts(0, 10)
-                val newResult = productRepository.getNewProducts(0, 10)
+                // One round trip for the whole screen; sections the server could not load in time
+                // (or the whole feed, if it fails) fall back to the individual endpoints
+                val feed = productRepository.getHomeFeed().getOrNull()
+                val missing = feed?.missingSections ?: listOf("featured", "newProducts")
+                
+                val featuredResult = if ("featured" in missing) {
+                    productRepository.getFeaturedProducts(0, 10)
+                } else {
+                    Result.success(feed!!.featured)
+                }
+                val newResult = if ("newProducts" in missing) {
+                    productRepository.getNewProducts(0, 10)
+                } else {
+                    Result.success(feed!!.newProducts)
+                }
                 
                 featuredResult.onSuccess { featuredProducts = it }
                 newResult.onSuccess { newProducts = it }
+                feed?.let { bestSellers = it.bestSellers }
                 
                 if (featuredResult.isFailure || newResult.isFailure) {
                     errorMessage = "Không thể tải sản phẩm"
@@ -161,6 +197,60 @@ fun HomeScreen(
                     }
                 }
             }
+            
+            // Best Sellers
+            if (bestSellers.isNotEmpty()) {
+                item {
+                    Text(
+                        text = "Bán chạy nhất",
+                        fontSize = 20.sp,
+                        fontWeight = FontWeight.Bold,
+                        modifier = Modifier.padding(vertical = 8.dp)
+                    )
+                }
+                
+                item {
+                    LazyRow(
+                        horizontalArrangement = Arrangement.spacedBy(12.dp)
+                    ) {
+                        items(bestSellers.size) { index ->
+                            ProductCard(product = bestSellers[index])
+                        }
+                    }
+                }
+            }
+            
+            // All Products
+            item {
+                Text(
+                    text = "Tất cả sản phẩm",
+                    fontSize = 20.sp,
+                    fontWeight = FontWeight.Bold,
+                    modifier = Modifier.padding(vertical = 8.dp)
+                )
+            }
+            
+            items(allProducts.size) { index ->
+                ProductCard(product = allProducts[index])
+                Spacer(modifier = Modifier.height(12.dp))
+            }
+            
+            if (hasMoreProducts) {
+                item {
+                    // Composed when scrolled into view, which requests the next slice
+                    LaunchedEffect(allProducts.size) {
+                        loadMoreProducts()
+                    }
+                    Box(
+                        modifier = Modifier
+                            .fillMaxWidth()
+                            .padding(vertical = 16.dp),
+                        contentAlignment = Alignment.Center
+                    ) {
+                        CircularProgressIndicator()
+                    }
+                }
+            }
         }
     }
 }
@@ -0,0 +1,21 @@
+package com.hasoftware.ustore.backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class FlashSaleConfig {
+
+    // One thread writes admitted flash purchases, so buyers waiting for their write never
+    // queue behind the jobs that share the default scheduler thread
+    @Bean
+    public ThreadPoolTaskExecutor flashSaleExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("flash-sale-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,29 @@
+package com.hasoftware.ustore.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class HomeFeedConfig {
+
+    @Value("${home.feed.threads:8}")
+    private int threads;
+
+    @Value("${home.feed.queue-capacity:200}")
+    private int queueCapacity;
+
+    // Bounded pool for the home feed fan-out; when it is saturated sections are rejected
+    // and reported as missing instead of queueing without limit
+    @Bean
+    public ThreadPoolTaskExecutor homeFeedExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("home-feed-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,25 @@
+package com.hasoftware.ustore.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ProductImportConfig {
+
+    @Value("${product.import.threads:4}")
+    private int threads;
+
+    // Parses import chunks; the import itself keeps at most two chunks per thread in flight
+    @Bean
+    public ThreadPoolTaskExecutor productImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 2);
+        executor.setThreadNamePrefix("product-import-");
+        executor.initialize();
+        return executor;
+    }
+}
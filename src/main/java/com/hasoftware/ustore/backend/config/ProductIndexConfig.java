@@ -0,0 +1,21 @@
+package com.hasoftware.ustore.backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ProductIndexConfig {
+
+    // One thread applies committed product changes to the in-memory indexes, so a rebuild
+    // never runs on (or blocks) a request thread; at most one pass is queued at a time
+    @Bean
+    public ThreadPoolTaskExecutor productIndexExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("product-index-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,175 @@
+package com.hasoftware.ustore.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hasoftware.ustore.backend.service.CatalogVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+// Serves hot catalog listings from their encoded bytes. Entries are keyed by path, query
+// parameters and catalog generation, so a change makes them unreachable instead of
+// requiring invalidation; a hit loads no entity and runs no serialization.
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final class CachedResponse {
+        private final String contentType;
+        private final String etag;
+        private final String lastModified;
+        private final byte[] body;
+        private final byte[] gzipped;
+
+        private CachedResponse(String contentType, String etag, String lastModified, byte[] body, byte[] gzipped) {
+            this.contentType = contentType;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+            this.gzipped = gzipped;
+        }
+
+        private int weight() {
+            return body.length + (gzipped != null ? gzipped.length : 0);
+        }
+    }
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${response-cache.paths:/api/products/featured,/api/products/new,/api/categories,/api/categories/active,"
+            + "/api/categories/root,/api/categories/parent/*}")
+    private String[] paths;
+
+    @Value("${response-cache.maximum-size:64MB}")
+    private DataSize maximumSize;
+
+    @Value("${response-cache.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    @Value("${response-cache.compress-min-size:1KB}")
+    private DataSize compressMinSize;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private Cache<String, CachedResponse> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((String key, CachedResponse value) -> value.weight())
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "listingResponse");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) || maximumSize.toBytes() == 0) {
+            return true;
+        }
+        for (String path : paths) {
+            if (pathMatcher.match(path, request.getServletPath())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        // Read before the body is built, so a change in between only makes the entry newer than its key
+        String key = key(request, catalogVersion.getGeneration());
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            write(cached, request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        String contentType = wrapper.getContentType();
+        if (wrapper.getStatus() == HttpStatus.OK.value() && contentType != null
+                && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+            byte[] body = wrapper.getContentAsByteArray();
+            byte[] gzipped = body.length >= compressMinSize.toBytes() ? gzip(body) : null;
+            cache.put(key, new CachedResponse(contentType, wrapper.getHeader(HttpHeaders.ETAG),
+                    wrapper.getHeader(HttpHeaders.LAST_MODIFIED), body, gzipped));
+            wrapper.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (cached.etag != null) {
+            HttpHeaders validators = new HttpHeaders();
+            if (cached.lastModified != null) {
+                validators.set(HttpHeaders.LAST_MODIFIED, cached.lastModified);
+            }
+            if (new ServletWebRequest(request, response).checkNotModified(cached.etag,
+                    validators.getLastModified())) {
+                return;
+            }
+        }
+
+        byte[] body = cached.body;
+        response.setContentType(cached.contentType);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (cached.gzipped != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = cached.gzipped;
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // Query parameters are sorted so that equivalent requests share one entry
+    private static String key(HttpServletRequest request, long generation) {
+        StringBuilder key = new StringBuilder(request.getServletPath()).append('?');
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        parameters.forEach((name, values) -> {
+            for (String value : values) {
+                key.append(name).append('=').append(value).append('&');
+            }
+        });
+        return key.append('#').append(generation).toString();
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(body);
+        }
+        return buffer.toByteArray();
+    }
+}
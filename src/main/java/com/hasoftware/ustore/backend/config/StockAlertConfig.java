@@ -0,0 +1,26 @@
+package com.hasoftware.ustore.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class StockAlertConfig {
+
+    @Value("${product.stock-alerts.queue-capacity:1000}")
+    private int queueCapacity;
+
+    // One thread writes stock alerts to the admin streams, so a slow client never holds up
+    // the product indexer; batches that do not fit in the queue are dropped
+    @Bean
+    public ThreadPoolTaskExecutor stockAlertExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("stock-alerts-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,40 @@
+package com.hasoftware.ustore.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebMvcConfig.class);
+
+    @Value("${product.export.timeout:30m}")
+    private Duration exportTimeout;
+
+    // The catalog export is the only async handler without a timeout of its own (the stock alert
+    // streams set theirs), so the default async timeout is the export's. Without it the container
+    // would cut a large export off after 30 seconds.
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(exportTimeout.toMillis());
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            // Spring interrupts the writing thread before this runs, so the export stops at its next
+            // row and closes its cursor; the default timeout handling then ends the response
+            @Override
+            public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+                logger.warn("Async request {} timed out after {} ms", request.getDescription(false),
+                        exportTimeout.toMillis());
+                return RESULT_NONE;
+            }
+        });
+    }
+}
@@ -1,10 +1,12 @@
 package com.hasoftware.ustore.backend.controller;
 
 import com.hasoftware.ustore.backend.entity.Category;
+import com.hasoftware.ustore.backend.service.CatalogVersion;
 import com.hasoftware.ustore.backend.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,39 +18,63 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private CatalogVersion catalogVersion;
+
     @GetMapping
-    public List<Category> getAllCategories() {
+    public List<Category> getAllCategories(WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
         return categoryService.getAllCategories();
     }
 
     @GetMapping("/active")
-    public List<Category> getActiveCategories() {
+    public List<Category> getActiveCategories(WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
         return categoryService.getActiveCategories();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<Category> getCategoryById(@PathVariable Long id, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
         Category category = categoryService.getCategoryById(id);
         return ResponseEntity.ok(category);
     }
 
     @GetMapping("/parent/{parentId}")
-    public List<Category> getCategoriesByParent(@PathVariable Long parentId) {
+    public List<Category> getCategoriesByParent(@PathVariable Long parentId, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
         return categoryService.getCategoriesByParent(parentId);
     }
 
     @GetMapping("/root")
-    public List<Category> getRootCategories() {
+    public List<Category> getRootCategories(WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
         return categoryService.getRootCategories();
     }
 
     @GetMapping("/with-products")
-    public List<Category> getCategoriesWithProducts() {
+    public List<Category> getCategoriesWithProducts(WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
         return categoryService.getCategoriesWithProducts();
     }
 
     @GetMapping("/{id}/product-count")
-    public ResponseEntity<Long> getProductCountInCategory(@PathVariable Long id) {
+    public ResponseEntity<Long> getProductCountInCategory(@PathVariable Long id, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
         Long count = categoryService.getProductCountInCategory(id);
         return ResponseEntity.ok(count);
     }
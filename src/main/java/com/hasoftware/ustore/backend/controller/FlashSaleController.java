@@ -0,0 +1,50 @@
+package com.hasoftware.ustore.backend.controller;
+
+import com.hasoftware.ustore.backend.dto.FlashPurchaseResult;
+import com.hasoftware.ustore.backend.dto.FlashSaleRequest;
+import com.hasoftware.ustore.backend.dto.FlashSaleView;
+import com.hasoftware.ustore.backend.security.UserPrincipal;
+import com.hasoftware.ustore.backend.service.FlashSaleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/flash-sales")
+public class FlashSaleController {
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @GetMapping
+    public List<FlashSaleView> getActiveSales() {
+        return flashSaleService.getActiveSales();
+    }
+
+    @GetMapping("/{id}")
+    public FlashSaleView getSale(@PathVariable Long id) {
+        return flashSaleService.getSale(id);
+    }
+
+    @PostMapping("/{id}/purchase")
+    public FlashPurchaseResult purchase(@AuthenticationPrincipal UserPrincipal user, @PathVariable Long id,
+            @RequestParam(defaultValue = "1") int quantity) {
+        return flashSaleService.purchase(id, user.getId(), quantity);
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public FlashSaleView startSale(@RequestBody FlashSaleRequest request) {
+        return flashSaleService.startSale(request);
+    }
+
+    @PostMapping("/{id}/end")
+    @PreAuthorize("hasRole('ADMIN')")
+    public FlashSaleView endSale(@PathVariable Long id) {
+        return flashSaleService.endSale(id);
+    }
+}
@@ -0,0 +1,20 @@
+package com.hasoftware.ustore.backend.controller;
+
+import com.hasoftware.ustore.backend.dto.HomeFeed;
+import com.hasoftware.ustore.backend.service.HomeFeedService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/home")
+public class HomeController {
+
+    @Autowired
+    private HomeFeedService homeFeedService;
+
+    @GetMapping
+    public HomeFeed getHomeFeed() {
+        return homeFeedService.getHomeFeed();
+    }
+}
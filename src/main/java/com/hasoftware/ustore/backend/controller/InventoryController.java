@@ -0,0 +1,39 @@
+package com.hasoftware.ustore.backend.controller;
+
+import com.hasoftware.ustore.backend.dto.ReservationRequest;
+import com.hasoftware.ustore.backend.dto.ReservationView;
+import com.hasoftware.ustore.backend.security.UserPrincipal;
+import com.hasoftware.ustore.backend.service.InventoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/inventory")
+public class InventoryController {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @PostMapping("/reservations")
+    public ReservationView reserve(@AuthenticationPrincipal UserPrincipal user,
+            @RequestBody ReservationRequest request) {
+        return inventoryService.reserve(user.getId(), request);
+    }
+
+    @GetMapping("/reservations/{key}")
+    public ReservationView getReservation(@AuthenticationPrincipal UserPrincipal user, @PathVariable String key) {
+        return inventoryService.getReservation(user.getId(), key);
+    }
+
+    @PostMapping("/reservations/{key}/commit")
+    public ReservationView commit(@AuthenticationPrincipal UserPrincipal user, @PathVariable String key) {
+        return inventoryService.commit(user.getId(), key);
+    }
+
+    @PostMapping("/reservations/{key}/release")
+    public ReservationView release(@AuthenticationPrincipal UserPrincipal user, @PathVariable String key) {
+        return inventoryService.release(user.getId(), key);
+    }
+}
@@ -1,15 +1,39 @@
 package com.hasoftware.ustore.backend.controller;
 
+import com.hasoftware.ustore.backend.dto.BulkUpdateResult;
+import com.hasoftware.ustore.backend.dto.ProductDetail;
+import com.hasoftware.ustore.backend.dto.ProductFacets;
+import com.hasoftware.ustore.backend.dto.ProductFilter;
+import com.hasoftware.ustore.backend.dto.ProductImportResult;
+import com.hasoftware.ustore.backend.dto.ProductStockPriceUpdate;
+import com.hasoftware.ustore.backend.dto.ProductSummary;
+import com.hasoftware.ustore.backend.dto.Suggestion;
 import com.hasoftware.ustore.backend.entity.Product;
+import com.hasoftware.ustore.backend.repository.ProductListing;
+import com.hasoftware.ustore.backend.service.CatalogFormat;
+import com.hasoftware.ustore.backend.service.CatalogVersion;
+import com.hasoftware.ustore.backend.service.ProductBulkUpdateService;
+import com.hasoftware.ustore.backend.service.ProductExportService;
+import com.hasoftware.ustore.backend.service.ProductImportService;
 import com.hasoftware.ustore.backend.service.ProductService;
+import com.hasoftware.ustore.backend.service.StockAlertNotifier;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -19,118 +43,313 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductBulkUpdateService productBulkUpdateService;
+
+    @Autowired
+    private StockAlertNotifier stockAlertNotifier;
+
     @GetMapping
-    public Page<Product> getAllProducts(Pageable pageable) {
+    public Slice<ProductSummary> getAllProducts(@RequestParam(required = false) String cursor,
+            Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
+        if (cursor != null) {
+            return productService.scrollProducts(ProductListing.ALL, Map.of(), cursor, pageable);
+        }
         return productService.getAllProducts(pageable);
     }
 
     @GetMapping("/active")
-    public Page<Product> getActiveProducts(Pageable pageable) {
+    public Slice<ProductSummary> getActiveProducts(@RequestParam(required = false) String cursor,
+            Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
+        if (cursor != null) {
+            return productService.scrollProducts(ProductListing.ACTIVE, Map.of(), cursor, pageable);
+        }
         return productService.getActiveProducts(pageable);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Product product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+    public ResponseEntity<ProductDetail> getProductById(@PathVariable Long id, WebRequest request) {
+        if (catalogVersion.checkProductNotModified(request, id)) {
+            productService.recordView(id);
+            return null;
+        }
+        long categories = catalogVersion.getCategoryGeneration();
+        ProductDetail product = productService.viewProduct(id);
+        return ResponseEntity.ok().headers(catalogVersion.productHeaders(product, categories)).body(product);
     }
 
     @GetMapping("/category/{categoryId}")
-    public Page<Product> getProductsByCategory(@PathVariable Long categoryId, Pageable pageable) {
+    public Slice<ProductSummary> getProductsByCategory(@PathVariable Long categoryId,
+            @RequestParam(required = false) String cursor, Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
+        if (cursor != null) {
+            return productService.scrollProducts(ProductListing.CATEGORY, Map.of("categoryId", categoryId), cursor,
+                    pageable);
+        }
         return productService.getProductsByCategory(categoryId, pageable);
     }
 
     @GetMapping("/brand/{brand}")
-    public Page<Product> getProductsByBrand(@PathVariable String brand, Pageable pageable) {
+    public Slice<ProductSummary> getProductsByBrand(@PathVariable String brand,
+            @RequestParam(required = false) String cursor, Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
+        if (cursor != null) {
+            return productService.scrollProducts(ProductListing.BRAND, Map.of("brand", brand), cursor, pageable);
+        }
         return productService.getProductsByBrand(brand, pageable);
     }
 
     @GetMapping("/featured")
-    public Page<Product> getFeaturedProducts(Pageable pageable) {
+    public Slice<ProductSummary> getFeaturedProducts(@RequestParam(required = false) String cursor,
+            Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
+        if (cursor != null) {
+            return productService.scrollProducts(ProductListing.FEATURED, Map.of(), cursor, pageable);
+        }
         return productService.getFeaturedProducts(pageable);
     }
 
     @GetMapping("/new")
-    public Page<Product> getNewProducts(Pageable pageable) {
+    public Slice<ProductSummary> getNewProducts(@RequestParam(required = false) String cursor,
+            Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
+        if (cursor != null) {
+            return productService.scrollProducts(ProductListing.NEW, Map.of(), cursor, pageable);
+        }
         return productService.getNewProducts(pageable);
     }
 
     @GetMapping("/search")
-    public Page<Product> searchProducts(@RequestParam String keyword, Pageable pageable) {
+    public Page<ProductSummary> searchProducts(@RequestParam String keyword, Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
         return productService.searchProducts(keyword, pageable);
     }
 
+    @GetMapping("/suggest")
+    public List<Suggestion> suggest(@RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit, WebRequest request) {
+        // Suggestions are weighted by views and sales, so flushed counters change them too
+        if (catalogVersion.checkNotModifiedWithCounters(request)) {
+            return null;
+        }
+        return productService.suggest(prefix, limit);
+    }
+
     @GetMapping("/price-range")
-    public Page<Product> getProductsByPriceRange(
+    public Slice<ProductSummary> getProductsByPriceRange(
             @RequestParam BigDecimal minPrice,
             @RequestParam BigDecimal maxPrice,
-            Pageable pageable) {
+            @RequestParam(required = false) String cursor,
+            Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
+        if (cursor != null) {
+            return productService.scrollProducts(ProductListing.PRICE_RANGE,
+                    Map.of("minPrice", minPrice, "maxPrice", maxPrice), cursor, pageable);
+        }
         return productService.getProductsByPriceRange(minPrice, maxPrice, pageable);
     }
 
     @GetMapping("/rating")
-    public Page<Product> getProductsByMinRating(@RequestParam Double minRating, Pageable pageable) {
+    public Slice<ProductSummary> getProductsByMinRating(@RequestParam Double minRating,
+            @RequestParam(required = false) String cursor, Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
+        if (cursor != null) {
+            return productService.scrollProducts(ProductListing.MIN_RATING, Map.of("minRating", minRating), cursor,
+                    pageable);
+        }
         return productService.getProductsByMinRating(minRating, pageable);
     }
 
     @GetMapping("/discounted")
-    public Page<Product> getDiscountedProducts(Pageable pageable) {
+    public Slice<ProductSummary> getDiscountedProducts(@RequestParam(required = false) String cursor,
+            Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
+        if (cursor != null) {
+            return productService.scrollProducts(ProductListing.DISCOUNTED, Map.of(), cursor, pageable);
+        }
         return productService.getDiscountedProducts(pageable);
     }
 
     @GetMapping("/in-stock")
-    public Page<Product> getInStockProducts(Pageable pageable) {
+    public Slice<ProductSummary> getInStockProducts(@RequestParam(required = false) String cursor,
+            Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
+        if (cursor != null) {
+            return productService.scrollProducts(ProductListing.IN_STOCK, Map.of(), cursor, pageable);
+        }
         return productService.getInStockProducts(pageable);
     }
 
     @GetMapping("/low-stock")
-    public List<Product> getLowStockProducts() {
-        return productService.getLowStockProducts();
+    @PreAuthorize("hasRole('ADMIN')")
+    public Page<ProductSummary> getLowStockProducts(Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
+        return productService.getLowStockProducts(pageable);
     }
 
     @GetMapping("/out-of-stock")
-    public List<Product> getOutOfStockProducts() {
-        return productService.getOutOfStockProducts();
+    @PreAuthorize("hasRole('ADMIN')")
+    public Page<ProductSummary> getOutOfStockProducts(Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
+        return productService.getOutOfStockProducts(pageable);
+    }
+
+    // Low / out of stock transitions as Server-Sent Events
+    @GetMapping(value = "/stock-alerts", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public SseEmitter streamStockAlerts() {
+        return stockAlertNotifier.subscribe();
     }
 
     @GetMapping("/{id}/similar")
-    public Page<Product> getSimilarProducts(@PathVariable Long id, Pageable pageable) {
+    public Page<ProductSummary> getSimilarProducts(@PathVariable Long id, Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
         return productService.getSimilarProducts(id, pageable);
     }
 
     @GetMapping("/best-selling")
-    public Page<Product> getBestSellingProducts(Pageable pageable) {
-        return productService.getBestSellingProducts(pageable);
+    public Slice<ProductSummary> getBestSellingProducts(@RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String cursor, Pageable pageable, WebRequest request) {
+        // Flash sale flushes move sold counts without a catalog change
+        if (catalogVersion.checkNotModifiedWithCounters(request)) {
+            return null;
+        }
+        if (cursor != null) {
+            return categoryId != null
+                    ? productService.scrollProducts(ProductListing.CATEGORY_BEST_SELLING,
+                            Map.of("categoryId", categoryId), cursor, pageable)
+                    : productService.scrollProducts(ProductListing.BEST_SELLING, Map.of(), cursor, pageable);
+        }
+        return productService.getBestSellingProducts(categoryId, pageable);
     }
 
     @GetMapping("/most-viewed")
-    public Page<Product> getMostViewedProducts(Pageable pageable) {
-        return productService.getMostViewedProducts(pageable);
+    public Slice<ProductSummary> getMostViewedProducts(@RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String cursor, Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModifiedWithCounters(request)) {
+            return null;
+        }
+        if (cursor != null) {
+            return categoryId != null
+                    ? productService.scrollProducts(ProductListing.CATEGORY_MOST_VIEWED,
+                            Map.of("categoryId", categoryId), cursor, pageable)
+                    : productService.scrollProducts(ProductListing.MOST_VIEWED, Map.of(), cursor, pageable);
+        }
+        return productService.getMostViewedProducts(categoryId, pageable);
     }
 
     @GetMapping("/filter")
-    public Page<Product> getProductsWithFilters(
+    public Slice<ProductSummary> getProductsWithFilters(
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) String brand,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) Double minRating,
             @RequestParam(required = false) Boolean inStock,
-            Pageable pageable) {
+            @RequestParam(required = false) String cursor,
+            Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
+        if (cursor != null) {
+            ProductFilter filter = new ProductFilter(null, categoryId, brand, minPrice, maxPrice, minRating, inStock);
+            return productService.scrollProductsWithFilters(filter, cursor, pageable);
+        }
         return productService.getProductsWithFilters(categoryId, brand, minPrice, maxPrice, minRating, inStock,
                 pageable);
     }
 
+    @GetMapping("/facets")
+    public ProductFacets getProductFacets(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) Boolean inStock,
+            Pageable pageable, WebRequest request) {
+        if (catalogVersion.checkNotModified(request)) {
+            return null;
+        }
+        ProductFilter filter = new ProductFilter(keyword, categoryId, brand, minPrice, maxPrice, minRating, inStock);
+        return productService.getProductFacets(filter, pageable);
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        CatalogFormat exportFormat = CatalogFormat.of(format);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"products." + exportFormat.getExtension() + "\"")
+                .body(out -> productExportService.export(exportFormat, out));
+    }
+
+    // The request body is the feed itself, read as it arrives
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ProductImportResult importProducts(@RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "true") boolean updateExisting, InputStream body) {
+        return productImportService.importProducts(body, CatalogFormat.of(format), updateExisting);
+    }
+
+    @PostMapping("/bulk-update")
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkUpdateResult updatePricesAndStock(@RequestBody List<ProductStockPriceUpdate> updates) {
+        return productBulkUpdateService.updatePricesAndStock(updates);
+    }
+
     @PostMapping
-    public ResponseEntity<Product> createProduct(@RequestBody Product product) {
+    public ResponseEntity<ProductDetail> createProduct(@RequestBody Product product) {
         Product createdProduct = productService.createProduct(product);
-        return ResponseEntity.ok(createdProduct);
+        return ResponseEntity.ok(productService.getProductDetail(createdProduct.getId()));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product productDetails) {
+    public ResponseEntity<ProductDetail> updateProduct(@PathVariable Long id, @RequestBody Product productDetails) {
         Product updatedProduct = productService.updateProduct(id, productDetails);
-        return ResponseEntity.ok(updatedProduct);
+        return ResponseEntity.ok(productService.getProductDetail(updatedProduct.getId()));
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,90 @@
+package com.hasoftware.ustore.backend.controller;
+
+import com.hasoftware.ustore.backend.dto.CursorSlice;
+import com.hasoftware.ustore.backend.dto.ReviewRequest;
+import com.hasoftware.ustore.backend.dto.ReviewSummary;
+import com.hasoftware.ustore.backend.dto.ReviewView;
+import com.hasoftware.ustore.backend.dto.ReviewVoteRequest;
+import com.hasoftware.ustore.backend.security.UserPrincipal;
+import com.hasoftware.ustore.backend.service.ProductReviewService;
+import com.hasoftware.ustore.backend.service.ReviewVoteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.ZoneId;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/products/{productId}/reviews")
+public class ProductReviewController {
+
+    @Autowired
+    private ProductReviewService productReviewService;
+
+    @Autowired
+    private ReviewVoteService reviewVoteService;
+
+    // The tag follows the product row, which every review write touches
+    @GetMapping("/summary")
+    public ResponseEntity<ReviewSummary> getReviewSummary(@PathVariable Long productId, WebRequest request) {
+        ReviewSummary summary = productReviewService.getReviewSummary(productId);
+        long version = summary.getUpdatedAt() != null
+                ? summary.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+        if (request.checkNotModified("\"s" + productId + "-" + version + "\"")) {
+            return null;
+        }
+        return ResponseEntity.ok(summary);
+    }
+
+    // Newest first; pass the returned nextCursor to read the following slice
+    @GetMapping
+    public CursorSlice<ReviewView> getReviews(@PathVariable Long productId,
+            @RequestParam(required = false) String cursor, Pageable pageable) {
+        return productReviewService.getRecentReviews(productId, cursor, pageable.getPageSize());
+    }
+
+    // Most helpful first, paged the same way
+    @GetMapping("/helpful")
+    public CursorSlice<ReviewView> getMostHelpfulReviews(@PathVariable Long productId,
+            @RequestParam(required = false) String cursor, Pageable pageable) {
+        return productReviewService.getMostHelpfulReviews(productId, cursor, pageable.getPageSize());
+    }
+
+    @PostMapping
+    @PreAuthorize("isAuthenticated()")
+    public ReviewView createReview(@PathVariable Long productId, @AuthenticationPrincipal UserPrincipal user,
+            @RequestBody ReviewRequest request) {
+        return productReviewService.createReview(productId, user.getId(), request);
+    }
+
+    @PutMapping("/{reviewId}")
+    @PreAuthorize("isAuthenticated()")
+    public ReviewView updateReview(@PathVariable Long productId, @PathVariable Long reviewId,
+            @AuthenticationPrincipal UserPrincipal user, @RequestBody ReviewRequest request) {
+        return productReviewService.updateReview(productId, reviewId, user.getId(), request);
+    }
+
+    @DeleteMapping("/{reviewId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> deleteReview(@PathVariable Long productId, @PathVariable Long reviewId,
+            @AuthenticationPrincipal UserPrincipal user) {
+        boolean admin = user.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        productReviewService.deleteReview(productId, reviewId, user.getId(), admin);
+        return ResponseEntity.ok().build();
+    }
+
+    // Accepted rather than OK: the counts are written with the next vote flush
+    @PutMapping("/{reviewId}/vote")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> voteOnReview(@PathVariable Long productId, @PathVariable Long reviewId,
+            @AuthenticationPrincipal UserPrincipal user, @RequestBody ReviewVoteRequest request) {
+        reviewVoteService.vote(productId, reviewId, user.getId(), request.getHelpful());
+        return ResponseEntity.accepted().build();
+    }
+}
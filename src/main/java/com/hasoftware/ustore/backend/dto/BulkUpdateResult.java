@@ -0,0 +1,54 @@
+package com.hasoftware.ustore.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Errors refer to items by their 1-based position in the request (ImportError.line)
+public class BulkUpdateResult {
+
+    private int total;
+    private int updated;
+    private int failed;
+    private long durationMs;
+    private List<ImportError> errors = new ArrayList<>();
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public List<ImportError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ImportError> errors) {
+        this.errors = errors;
+    }
+}
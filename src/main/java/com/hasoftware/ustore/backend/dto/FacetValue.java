@@ -0,0 +1,41 @@
+package com.hasoftware.ustore.backend.dto;
+
+public class FacetValue {
+
+    private String value;
+    private String label;
+    private Long count;
+
+    public FacetValue() {
+    }
+
+    public FacetValue(String value, String label, Long count) {
+        this.value = value;
+        this.label = label;
+        this.count = count;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+}
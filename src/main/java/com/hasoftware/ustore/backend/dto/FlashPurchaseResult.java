@@ -0,0 +1,51 @@
+package com.hasoftware.ustore.backend.dto;
+
+public class FlashPurchaseResult {
+
+    private Long saleId;
+    private boolean accepted;
+    private int quantity;
+    private long remaining;
+
+    public FlashPurchaseResult() {
+    }
+
+    public FlashPurchaseResult(Long saleId, boolean accepted, int quantity, long remaining) {
+        this.saleId = saleId;
+        this.accepted = accepted;
+        this.quantity = quantity;
+        this.remaining = remaining;
+    }
+
+    public Long getSaleId() {
+        return saleId;
+    }
+
+    public void setSaleId(Long saleId) {
+        this.saleId = saleId;
+    }
+
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(boolean accepted) {
+        this.accepted = accepted;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public long getRemaining() {
+        return remaining;
+    }
+
+    public void setRemaining(long remaining) {
+        this.remaining = remaining;
+    }
+}
@@ -0,0 +1,33 @@
+package com.hasoftware.ustore.backend.dto;
+
+// Puts quantity units of a product on flash sale for durationMinutes
+public class FlashSaleRequest {
+
+    private Long productId;
+    private Integer quantity;
+    private Integer durationMinutes;
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+}
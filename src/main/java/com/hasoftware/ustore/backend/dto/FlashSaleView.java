@@ -0,0 +1,87 @@
+package com.hasoftware.ustore.backend.dto;
+
+import com.hasoftware.ustore.backend.entity.FlashSale.Status;
+
+import java.time.LocalDateTime;
+
+// For a running sale, sold and remaining include purchases not yet written to the database
+public class FlashSaleView {
+
+    private Long id;
+    private Long productId;
+    private int allocated;
+    private long sold;
+    private long remaining;
+    private Status status;
+    private LocalDateTime endsAt;
+
+    public FlashSaleView() {
+    }
+
+    public FlashSaleView(Long id, Long productId, int allocated, long sold, long remaining, Status status,
+            LocalDateTime endsAt) {
+        this.id = id;
+        this.productId = productId;
+        this.allocated = allocated;
+        this.sold = sold;
+        this.remaining = remaining;
+        this.status = status;
+        this.endsAt = endsAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getAllocated() {
+        return allocated;
+    }
+
+    public void setAllocated(int allocated) {
+        this.allocated = allocated;
+    }
+
+    public long getSold() {
+        return sold;
+    }
+
+    public void setSold(long sold) {
+        this.sold = sold;
+    }
+
+    public long getRemaining() {
+        return remaining;
+    }
+
+    public void setRemaining(long remaining) {
+        this.remaining = remaining;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getEndsAt() {
+        return endsAt;
+    }
+
+    public void setEndsAt(LocalDateTime endsAt) {
+        this.endsAt = endsAt;
+    }
+}
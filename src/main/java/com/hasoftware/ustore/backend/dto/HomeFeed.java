@@ -0,0 +1,60 @@
+package com.hasoftware.ustore.backend.dto;
+
+import com.hasoftware.ustore.backend.entity.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Everything the home screen shows on start. Sections that missed their time budget
+// are left empty and listed in missingSections so the client can fetch them separately.
+public class HomeFeed {
+
+    private List<ProductSummary> featured = new ArrayList<>();
+    private List<ProductSummary> newProducts = new ArrayList<>();
+    private List<ProductSummary> bestSellers = new ArrayList<>();
+    private List<Category> categories = new ArrayList<>();
+    private List<String> missingSections = new ArrayList<>();
+
+    public HomeFeed() {
+    }
+
+    public List<ProductSummary> getFeatured() {
+        return featured;
+    }
+
+    public void setFeatured(List<ProductSummary> featured) {
+        this.featured = featured;
+    }
+
+    public List<ProductSummary> getNewProducts() {
+        return newProducts;
+    }
+
+    public void setNewProducts(List<ProductSummary> newProducts) {
+        this.newProducts = newProducts;
+    }
+
+    public List<ProductSummary> getBestSellers() {
+        return bestSellers;
+    }
+
+    public void setBestSellers(List<ProductSummary> bestSellers) {
+        this.bestSellers = bestSellers;
+    }
+
+    public List<Category> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<Category> categories) {
+        this.categories = categories;
+    }
+
+    public List<String> getMissingSections() {
+        return missingSections;
+    }
+
+    public void setMissingSections(List<String> missingSections) {
+        this.missingSections = missingSections;
+    }
+}
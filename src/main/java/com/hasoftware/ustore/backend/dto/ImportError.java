@@ -0,0 +1,41 @@
+package com.hasoftware.ustore.backend.dto;
+
+public class ImportError {
+
+    private int line;
+    private String sku;
+    private String message;
+
+    public ImportError() {
+    }
+
+    public ImportError(int line, String sku, String message) {
+        this.line = line;
+        this.sku = sku;
+        this.message = message;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public void setLine(int line) {
+        this.line = line;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
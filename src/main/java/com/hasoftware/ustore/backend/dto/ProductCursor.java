@@ -0,0 +1,108 @@
+package com.hasoftware.ustore.backend.dto;
+
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Function;
+
+// Keyset position after the last product of a slice: the sort order it was read with,
+// the sort key of the last product and its id. Clients get it as an opaque token.
+public class ProductCursor {
+
+    // Sort properties that can be used for keyset pagination, with their key parsers
+    private static final Map<String, Function<String, Object>> KEY_PARSERS = Map.of(
+            "id", Long::valueOf,
+            "price", BigDecimal::new,
+            "rating", Double::valueOf,
+            "soldCount", Integer::valueOf,
+            "viewCount", Integer::valueOf,
+            "createdAt", LocalDateTime::parse);
+
+    private static final String SEPARATOR = "|";
+
+    private final String property;
+    private final boolean descending;
+    private final Object key;
+    private final Long id;
+
+    public ProductCursor(Sort.Order order, Object key, Long id) {
+        this.property = order.getProperty();
+        this.descending = order.isDescending();
+        this.key = key;
+        this.id = id;
+    }
+
+    public static boolean isSortable(String property) {
+        return KEY_PARSERS.containsKey(property);
+    }
+
+    // Cursor positioned after the given product
+    public static ProductCursor after(ProductSummary last, Sort.Order order) {
+        Object key;
+        switch (order.getProperty()) {
+            case "price":
+                key = last.getPrice();
+                break;
+            case "rating":
+                key = last.getRating();
+                break;
+            case "soldCount":
+                key = last.getSoldCount();
+                break;
+            case "viewCount":
+                key = last.getViewCount();
+                break;
+            case "createdAt":
+                key = last.getCreatedAt();
+                break;
+            default:
+                key = last.getId();
+        }
+        return new ProductCursor(order, key, last.getId());
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + SEPARATOR, -1);
+            if (parts.length != 4 || !isSortable(parts[0])) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            Sort.Order order = "desc".equals(parts[1]) ? Sort.Order.desc(parts[0]) : Sort.Order.asc(parts[0]);
+            return new ProductCursor(order, KEY_PARSERS.get(parts[0]).apply(parts[2]), Long.valueOf(parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String value = key instanceof BigDecimal ? ((BigDecimal) key).toPlainString() : String.valueOf(key);
+        String raw = property + SEPARATOR + (descending ? "desc" : "asc") + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean matches(Sort.Order order) {
+        return property.equals(order.getProperty()) && descending == order.isDescending();
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
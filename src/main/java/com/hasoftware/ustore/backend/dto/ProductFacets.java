@@ -0,0 +1,68 @@
+package com.hasoftware.ustore.backend.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A page of matching products plus the facet counts of the whole result set
+public class ProductFacets {
+
+    private Page<ProductSummary> products;
+    private List<FacetValue> brands = new ArrayList<>();
+    private List<FacetValue> categories = new ArrayList<>();
+    private List<FacetValue> priceRanges = new ArrayList<>();
+    private List<FacetValue> ratings = new ArrayList<>();
+    private List<FacetValue> availability = new ArrayList<>();
+
+    public ProductFacets() {
+    }
+
+    public Page<ProductSummary> getProducts() {
+        return products;
+    }
+
+    public void setProducts(Page<ProductSummary> products) {
+        this.products = products;
+    }
+
+    public List<FacetValue> getBrands() {
+        return brands;
+    }
+
+    public void setBrands(List<FacetValue> brands) {
+        this.brands = brands;
+    }
+
+    public List<FacetValue> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<FacetValue> categories) {
+        this.categories = categories;
+    }
+
+    public List<FacetValue> getPriceRanges() {
+        return priceRanges;
+    }
+
+    public void setPriceRanges(List<FacetValue> priceRanges) {
+        this.priceRanges = priceRanges;
+    }
+
+    public List<FacetValue> getRatings() {
+        return ratings;
+    }
+
+    public void setRatings(List<FacetValue> ratings) {
+        this.ratings = ratings;
+    }
+
+    public List<FacetValue> getAvailability() {
+        return availability;
+    }
+
+    public void setAvailability(List<FacetValue> availability) {
+        this.availability = availability;
+    }
+}
@@ -0,0 +1,72 @@
+package com.hasoftware.ustore.backend.dto;
+
+public class ProductImageView {
+
+    private Long id;
+    private Long productId;
+    private String imageUrl;
+    private String altText;
+    private Boolean isPrimary;
+    private Integer sortOrder;
+
+    public ProductImageView() {
+    }
+
+    public ProductImageView(Long id, Long productId, String imageUrl, String altText, Boolean isPrimary,
+            Integer sortOrder) {
+        this.id = id;
+        this.productId = productId;
+        this.imageUrl = imageUrl;
+        this.altText = altText;
+        this.isPrimary = isPrimary;
+        this.sortOrder = sortOrder;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getAltText() {
+        return altText;
+    }
+
+    public void setAltText(String altText) {
+        this.altText = altText;
+    }
+
+    public Boolean getIsPrimary() {
+        return isPrimary;
+    }
+
+    public void setIsPrimary(Boolean isPrimary) {
+        this.isPrimary = isPrimary;
+    }
+
+    public Integer getSortOrder() {
+        return sortOrder;
+    }
+
+    public void setSortOrder(Integer sortOrder) {
+        this.sortOrder = sortOrder;
+    }
+}
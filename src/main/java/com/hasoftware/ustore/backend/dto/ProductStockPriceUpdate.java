@@ -0,0 +1,54 @@
+package com.hasoftware.ustore.backend.dto;
+
+import java.math.BigDecimal;
+
+// One item of a bulk price / stock update; fields left null are not changed
+public class ProductStockPriceUpdate {
+
+    private String sku;
+    private BigDecimal price;
+    private BigDecimal originalPrice;
+    private Integer stockQuantity;
+
+    public ProductStockPriceUpdate() {
+    }
+
+    public ProductStockPriceUpdate(String sku, BigDecimal price, BigDecimal originalPrice, Integer stockQuantity) {
+        this.sku = sku;
+        this.price = price;
+        this.originalPrice = originalPrice;
+        this.stockQuantity = stockQuantity;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public BigDecimal getOriginalPrice() {
+        return originalPrice;
+    }
+
+    public void setOriginalPrice(BigDecimal originalPrice) {
+        this.originalPrice = originalPrice;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+}
@@ -0,0 +1,27 @@
+package com.hasoftware.ustore.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A cart to hold; holdSeconds is optional and capped by inventory.reservation.max-hold-time
+public class ReservationRequest {
+
+    private List<ReservationItem> items = new ArrayList<>();
+    private Integer holdSeconds;
+
+    public List<ReservationItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ReservationItem> items) {
+        this.items = items;
+    }
+
+    public Integer getHoldSeconds() {
+        return holdSeconds;
+    }
+
+    public void setHoldSeconds(Integer holdSeconds) {
+        this.holdSeconds = holdSeconds;
+    }
+}
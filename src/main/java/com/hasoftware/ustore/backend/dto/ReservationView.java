@@ -0,0 +1,57 @@
+package com.hasoftware.ustore.backend.dto;
+
+import com.hasoftware.ustore.backend.entity.StockReservation.Status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ReservationView {
+
+    private String reservationKey;
+    private Status status;
+    private LocalDateTime expiresAt;
+    private List<ReservationItem> items;
+
+    public ReservationView() {
+    }
+
+    public ReservationView(String reservationKey, Status status, LocalDateTime expiresAt,
+            List<ReservationItem> items) {
+        this.reservationKey = reservationKey;
+        this.status = status;
+        this.expiresAt = expiresAt;
+        this.items = items;
+    }
+
+    public String getReservationKey() {
+        return reservationKey;
+    }
+
+    public void setReservationKey(String reservationKey) {
+        this.reservationKey = reservationKey;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public List<ReservationItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ReservationItem> items) {
+        this.items = items;
+    }
+}
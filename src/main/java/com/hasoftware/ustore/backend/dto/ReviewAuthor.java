@@ -0,0 +1,52 @@
+package com.hasoftware.ustore.backend.dto;
+
+// Display data of a review's author, loaded for a whole page of reviews at once
+public class ReviewAuthor {
+
+    private Long id;
+    private String username;
+    private String fullName;
+    private String profileImage;
+
+    public ReviewAuthor() {
+    }
+
+    public ReviewAuthor(Long id, String username, String fullName, String profileImage) {
+        this.id = id;
+        this.username = username;
+        this.fullName = fullName;
+        this.profileImage = profileImage;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+    }
+
+    public String getProfileImage() {
+        return profileImage;
+    }
+
+    public void setProfileImage(String profileImage) {
+        this.profileImage = profileImage;
+    }
+}
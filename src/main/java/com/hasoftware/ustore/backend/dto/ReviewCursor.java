@@ -0,0 +1,67 @@
+package com.hasoftware.ustore.backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Function;
+
+// Keyset position after the last review of a slice: the review order it was read in,
+// the sort key of the last review and its id. Clients get it as an opaque token.
+public class ReviewCursor {
+
+    public static final String HELPFUL = "helpful";
+
+    public static final String RECENT = "recent";
+
+    // Review orders that can be scrolled, with their key parsers
+    private static final Map<String, Function<String, Object>> KEY_PARSERS = Map.of(
+            HELPFUL, Integer::valueOf,
+            RECENT, LocalDateTime::parse);
+
+    private static final String SEPARATOR = "|";
+
+    private final String order;
+    private final Object key;
+    private final Long id;
+
+    public ReviewCursor(String order, Object key, Long id) {
+        this.order = order;
+        this.key = key;
+        this.id = id;
+    }
+
+    public static ReviewCursor decode(String token, String expectedOrder) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + SEPARATOR, -1);
+            if (parts.length != 3 || !KEY_PARSERS.containsKey(parts[0])) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            if (!parts[0].equals(expectedOrder)) {
+                throw new RuntimeException("Cursor does not match the requested order");
+            }
+            return new ReviewCursor(parts[0], KEY_PARSERS.get(parts[0]).apply(parts[1]), Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = order + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getOrder() {
+        return order;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
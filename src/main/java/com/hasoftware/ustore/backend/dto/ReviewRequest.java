@@ -0,0 +1,23 @@
+package com.hasoftware.ustore.backend.dto;
+
+public class ReviewRequest {
+
+    private Integer rating;
+    private String comment;
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+}
@@ -0,0 +1,66 @@
+package com.hasoftware.ustore.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Star distribution of a product's reviews: number of reviews per rating, 1 to 5
+public class ReviewSummary {
+
+    private Long productId;
+    private double average;
+    private int count;
+    private Map<Integer, Integer> distribution;
+    private LocalDateTime updatedAt;
+
+    public ReviewSummary() {
+    }
+
+    public ReviewSummary(Long productId, double average, int count, Map<Integer, Integer> distribution,
+            LocalDateTime updatedAt) {
+        this.productId = productId;
+        this.average = average;
+        this.count = count;
+        this.distribution = distribution;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public double getAverage() {
+        return average;
+    }
+
+    public void setAverage(double average) {
+        this.average = average;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public Map<Integer, Integer> getDistribution() {
+        return distribution;
+    }
+
+    public void setDistribution(Map<Integer, Integer> distribution) {
+        this.distribution = distribution;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
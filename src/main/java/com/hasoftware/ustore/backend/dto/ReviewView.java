@@ -0,0 +1,125 @@
+package com.hasoftware.ustore.backend.dto;
+
+import java.time.LocalDateTime;
+
+public class ReviewView {
+
+    private Long id;
+    private Long productId;
+    private Long userId;
+    private Integer rating;
+    private String comment;
+    private Boolean isVerifiedPurchase;
+    private Integer helpfulCount;
+    private Integer notHelpfulCount;
+    private Integer helpfulnessScore;
+    private LocalDateTime createdAt;
+    // Filled in for listings only, with one query per page
+    private ReviewAuthor author;
+
+    public ReviewView() {
+    }
+
+    public ReviewView(Long id, Long productId, Long userId, Integer rating, String comment,
+            Boolean isVerifiedPurchase, Integer helpfulCount, Integer notHelpfulCount, Integer helpfulnessScore,
+            LocalDateTime createdAt) {
+        this.id = id;
+        this.productId = productId;
+        this.userId = userId;
+        this.rating = rating;
+        this.comment = comment;
+        this.isVerifiedPurchase = isVerifiedPurchase;
+        this.helpfulCount = helpfulCount;
+        this.notHelpfulCount = notHelpfulCount;
+        this.helpfulnessScore = helpfulnessScore;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    public Boolean getIsVerifiedPurchase() {
+        return isVerifiedPurchase;
+    }
+
+    public void setIsVerifiedPurchase(Boolean isVerifiedPurchase) {
+        this.isVerifiedPurchase = isVerifiedPurchase;
+    }
+
+    public Integer getHelpfulCount() {
+        return helpfulCount;
+    }
+
+    public void setHelpfulCount(Integer helpfulCount) {
+        this.helpfulCount = helpfulCount;
+    }
+
+    public Integer getNotHelpfulCount() {
+        return notHelpfulCount;
+    }
+
+    public void setNotHelpfulCount(Integer notHelpfulCount) {
+        this.notHelpfulCount = notHelpfulCount;
+    }
+
+    public Integer getHelpfulnessScore() {
+        return helpfulnessScore;
+    }
+
+    public void setHelpfulnessScore(Integer helpfulnessScore) {
+        this.helpfulnessScore = helpfulnessScore;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public ReviewAuthor getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(ReviewAuthor author) {
+        this.author = author;
+    }
+}
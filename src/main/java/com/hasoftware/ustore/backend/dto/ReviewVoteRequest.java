@@ -0,0 +1,14 @@
+package com.hasoftware.ustore.backend.dto;
+
+public class ReviewVoteRequest {
+
+    private Boolean helpful;
+
+    public Boolean getHelpful() {
+        return helpful;
+    }
+
+    public void setHelpful(Boolean helpful) {
+        this.helpful = helpful;
+    }
+}
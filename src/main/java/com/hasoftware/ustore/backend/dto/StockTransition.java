@@ -0,0 +1,86 @@
+package com.hasoftware.ustore.backend.dto;
+
+import com.hasoftware.ustore.backend.search.StockAlertIndex.Level;
+
+// A product moving between stock levels; a null level means the product is not tracked
+// there (inactive or deleted), and a product that is back in stock has current IN_STOCK
+public class StockTransition {
+
+    private Long productId;
+    private String name;
+    private String sku;
+    private Integer stockQuantity;
+    private Integer minStockLevel;
+    private Level previous;
+    private Level current;
+
+    public StockTransition() {
+    }
+
+    public StockTransition(Long productId, String name, String sku, Integer stockQuantity, Integer minStockLevel,
+            Level previous, Level current) {
+        this.productId = productId;
+        this.name = name;
+        this.sku = sku;
+        this.stockQuantity = stockQuantity;
+        this.minStockLevel = minStockLevel;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public Integer getMinStockLevel() {
+        return minStockLevel;
+    }
+
+    public void setMinStockLevel(Integer minStockLevel) {
+        this.minStockLevel = minStockLevel;
+    }
+
+    public Level getPrevious() {
+        return previous;
+    }
+
+    public void setPrevious(Level previous) {
+        this.previous = previous;
+    }
+
+    public Level getCurrent() {
+        return current;
+    }
+
+    public void setCurrent(Level current) {
+        this.current = current;
+    }
+}
@@ -0,0 +1,52 @@
+package com.hasoftware.ustore.backend.dto;
+
+// Autocomplete entry: a product name, brand or category name
+public class Suggestion {
+
+    private String text;
+    private String type;
+    private Long id;
+    private Long weight;
+
+    public Suggestion() {
+    }
+
+    public Suggestion(String text, String type, Long id, Long weight) {
+        this.text = text;
+        this.type = type;
+        this.id = id;
+        this.weight = weight;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Long weight) {
+        this.weight = weight;
+    }
+}
@@ -0,0 +1,127 @@
+package com.hasoftware.ustore.backend.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "flash_sales")
+@EntityListeners(AuditingEntityListener.class)
+public class FlashSale {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @NotNull
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Long productId;
+    
+    // Units taken out of the product's stock for this sale
+    @NotNull
+    @Column(nullable = false, updatable = false)
+    private Integer allocated;
+    
+    // Units whose sale has been written to the database
+    @Column(nullable = false)
+    private Integer sold = 0;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.ACTIVE;
+    
+    @NotNull
+    @Column(name = "ends_at", nullable = false)
+    private LocalDateTime endsAt;
+    
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @LastModifiedDate
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public FlashSale() {}
+    
+    public FlashSale(Long productId, Integer allocated, LocalDateTime endsAt) {
+        this.productId = productId;
+        this.allocated = allocated;
+        this.endsAt = endsAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public Integer getAllocated() {
+        return allocated;
+    }
+    
+    public void setAllocated(Integer allocated) {
+        this.allocated = allocated;
+    }
+    
+    public Integer getSold() {
+        return sold;
+    }
+    
+    public void setSold(Integer sold) {
+        this.sold = sold;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public LocalDateTime getEndsAt() {
+        return endsAt;
+    }
+    
+    public void setEndsAt(LocalDateTime endsAt) {
+        this.endsAt = endsAt;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public enum Status {
+        ACTIVE,
+        ENDED
+    }
+}
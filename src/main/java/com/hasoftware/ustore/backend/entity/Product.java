@@ -82,16 +82,16 @@ public class Product {
     @Column(name = "warranty_period")
     private String warrantyPeriod;
     
-    @Column(name = "rating")
+    @Column(name = "rating", nullable = false)
     private Double rating = 0.0;
     
     @Column(name = "review_count")
     private Integer reviewCount = 0;
     
-    @Column(name = "view_count")
+    @Column(name = "view_count", nullable = false)
     private Integer viewCount = 0;
     
-    @Column(name = "sold_count")
+    @Column(name = "sold_count", nullable = false)
     private Integer soldCount = 0;
     
     @CreatedDate
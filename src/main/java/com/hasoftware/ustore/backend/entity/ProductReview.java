@@ -30,12 +30,16 @@ public class ProductReview {
     @Column(name = "is_verified_purchase")
     private Boolean isVerifiedPurchase = false;
 
-    @Column(name = "is_helpful")
+    @Column(name = "helpful_count")
     private Integer helpfulCount = 0;
 
-    @Column(name = "is_not_helpful")
+    @Column(name = "not_helpful_count")
     private Integer notHelpfulCount = 0;
 
+    // Maintained by the review vote flush only
+    @Column(name = "helpfulness_score", insertable = false, updatable = false)
+    private Integer helpfulnessScore = 0;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -110,6 +114,14 @@ public class ProductReview {
         this.notHelpfulCount = notHelpfulCount;
     }
 
+    public Integer getHelpfulnessScore() {
+        return helpfulnessScore;
+    }
+
+    public void setHelpfulnessScore(Integer helpfulnessScore) {
+        this.helpfulnessScore = helpfulnessScore;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,16 @@
+package com.hasoftware.ustore.backend.event;
+
+// Published by write paths for every category that was created, updated or deleted.
+// Products embed their category's name and parent, so listeners treat it as a catalog-wide change.
+public class CategoryChangedEvent {
+
+    private final Long categoryId;
+
+    public CategoryChangedEvent(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+}
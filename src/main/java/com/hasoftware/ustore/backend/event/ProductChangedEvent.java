@@ -0,0 +1,24 @@
+package com.hasoftware.ustore.backend.event;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+// Published by write paths for every product that was created, updated or deleted.
+// Listeners reload the current row, so the event only needs to carry ids.
+public class ProductChangedEvent {
+
+    private final Set<Long> productIds;
+
+    public ProductChangedEvent(Collection<Long> productIds) {
+        this.productIds = Set.copyOf(productIds);
+    }
+
+    public static ProductChangedEvent of(Long productId) {
+        return new ProductChangedEvent(List.of(productId));
+    }
+
+    public Set<Long> getProductIds() {
+        return productIds;
+    }
+}
@@ -0,0 +1,20 @@
+package com.hasoftware.ustore.backend.event;
+
+import com.hasoftware.ustore.backend.dto.StockTransition;
+
+import java.util.List;
+
+// Published by StockAlertIndex after it applied a change that moved products between
+// stock levels. A rebuild reports all of its transitions in one event.
+public class StockLevelChangedEvent {
+
+    private final List<StockTransition> transitions;
+
+    public StockLevelChangedEvent(List<StockTransition> transitions) {
+        this.transitions = List.copyOf(transitions);
+    }
+
+    public List<StockTransition> getTransitions() {
+        return transitions;
+    }
+}
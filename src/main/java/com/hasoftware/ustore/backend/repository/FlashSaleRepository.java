@@ -0,0 +1,18 @@
+package com.hasoftware.ustore.backend.repository;
+
+import com.hasoftware.ustore.backend.entity.FlashSale;
+import com.hasoftware.ustore.backend.entity.FlashSale.Status;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FlashSaleRepository extends JpaRepository<FlashSale, Long> {
+
+    // Find sales by status
+    List<FlashSale> findByStatusOrderByIdAsc(Status status);
+
+    // Check if a product already has a sale running
+    boolean existsByProductIdAndStatus(Long productId, Status status);
+}
@@ -1,11 +1,13 @@
 package com.hasoftware.ustore.backend.repository;
 
+import com.hasoftware.ustore.backend.dto.ProductImageView;
 import com.hasoftware.ustore.backend.entity.ProductImage;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +24,13 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
     @Query("SELECT pi FROM ProductImage pi WHERE pi.product.id = :productId ORDER BY pi.sortOrder ASC")
     Optional<ProductImage> findFirstByProductIdOrderBySortOrderAsc(@Param("productId") Long productId);
 
+    // Find images of several products in one query, primary image first
+    @Query("SELECT new com.hasoftware.ustore.backend.dto.ProductImageView(" +
+            "pi.id, pi.product.id, pi.imageUrl, pi.altText, pi.isPrimary, pi.sortOrder) " +
+            "FROM ProductImage pi WHERE pi.product.id IN :productIds " +
+            "ORDER BY pi.product.id ASC, pi.isPrimary DESC, pi.sortOrder ASC")
+    List<ProductImageView> findViewsByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
     // Count images for product
     Long countByProductId(Long productId);
 
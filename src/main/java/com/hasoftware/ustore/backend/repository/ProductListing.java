@@ -0,0 +1,42 @@
+package com.hasoftware.ustore.backend.repository;
+
+import org.springframework.data.domain.Sort;
+
+// Product listings that can be read with keyset pagination: the JPQL condition on
+// Product p (named parameters supplied by the caller) and the order used when the
+// request does not specify one
+public enum ProductListing {
+
+    ALL("p.id IS NOT NULL", Sort.Order.asc("id")),
+    ACTIVE("p.isActive = true", Sort.Order.asc("id")),
+    CATEGORY("p.category.id = :categoryId AND p.isActive = true", Sort.Order.asc("id")),
+    BRAND("p.brand = :brand AND p.isActive = true", Sort.Order.asc("id")),
+    FEATURED("p.isFeatured = true AND p.isActive = true", Sort.Order.asc("id")),
+    NEW("p.isNew = true AND p.isActive = true", Sort.Order.asc("id")),
+    PRICE_RANGE("p.isActive = true AND p.price BETWEEN :minPrice AND :maxPrice", Sort.Order.asc("id")),
+    MIN_RATING("p.isActive = true AND p.rating >= :minRating", Sort.Order.asc("id")),
+    DISCOUNTED("p.isActive = true AND p.discountPercentage > 0", Sort.Order.asc("id")),
+    IN_STOCK("p.isActive = true AND p.stockQuantity > 0", Sort.Order.asc("id")),
+    BEST_SELLING("p.isActive = true", Sort.Order.desc("soldCount")),
+    MOST_VIEWED("p.isActive = true", Sort.Order.desc("viewCount")),
+    CATEGORY_BEST_SELLING("p.isActive = true AND "
+            + "(p.category.id = :categoryId OR p.category.parentId = :categoryId)", Sort.Order.desc("soldCount")),
+    CATEGORY_MOST_VIEWED("p.isActive = true AND "
+            + "(p.category.id = :categoryId OR p.category.parentId = :categoryId)", Sort.Order.desc("viewCount"));
+
+    private final String condition;
+    private final Sort.Order defaultOrder;
+
+    ProductListing(String condition, Sort.Order defaultOrder) {
+        this.condition = condition;
+        this.defaultOrder = defaultOrder;
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public Sort.Order getDefaultOrder() {
+        return defaultOrder;
+    }
+}
@@ -1,65 +1,137 @@
 package com.hasoftware.ustore.backend.repository;
 
+import com.hasoftware.ustore.backend.dto.ProductDetail;
+import com.hasoftware.ustore.backend.dto.ProductSummary;
 import com.hasoftware.ustore.backend.entity.Product;
+import com.hasoftware.ustore.backend.search.ProductCounterRow;
+import com.hasoftware.ustore.backend.search.ProductIndexRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    // Listing projection: only the columns a product card needs, category resolved by join
+    String SUMMARY_SELECT = "SELECT new com.hasoftware.ustore.backend.dto.ProductSummary(" +
+            "p.id, p.name, p.price, p.originalPrice, p.discountPercentage, p.brand, p.sku, p.stockQuantity, " +
+            "p.isActive, p.isFeatured, p.isNew, p.rating, p.reviewCount, p.viewCount, p.soldCount, " +
+            "c.id, c.name, p.createdAt, p.updatedAt) FROM Product p LEFT JOIN p.category c ";
+
+    String DETAIL_SELECT = "SELECT new com.hasoftware.ustore.backend.dto.ProductDetail(" +
+            "p.id, p.name, p.description, p.price, p.originalPrice, p.discountPercentage, p.brand, p.sku, " +
+            "p.stockQuantity, p.minStockLevel, p.isActive, p.isFeatured, p.isNew, p.weight, p.dimensions, " +
+            "p.color, p.size, p.material, p.warrantyPeriod, p.rating, p.reviewCount, p.viewCount, p.soldCount, " +
+            "c.id, c.name, p.createdAt, p.updatedAt) FROM Product p LEFT JOIN p.category c ";
+
+    String COUNT_SELECT = "SELECT COUNT(p) FROM Product p ";
+
+    String INDEX_ROW_SELECT = "SELECT new com.hasoftware.ustore.backend.search.ProductIndexRow(" +
+            "p.id, p.name, p.description, p.brand, p.sku, p.price, p.originalPrice, p.discountPercentage, " +
+            "p.stockQuantity, p.minStockLevel, p.isActive, p.isFeatured, p.isNew, p.color, p.size, p.material, " +
+            "p.rating, p.reviewCount, p.viewCount, p.soldCount, c.id, c.parentId, c.name, p.createdAt, " +
+            "p.updatedAt) " +
+            "FROM Product p LEFT JOIN p.category c ";
+
+    // Find all products
+    @Query(value = SUMMARY_SELECT, countQuery = COUNT_SELECT)
+    Page<ProductSummary> findAllSummaries(Pageable pageable);
+
+    // Find product detail
+    @Query(DETAIL_SELECT + "WHERE p.id = :productId")
+    Optional<ProductDetail> findDetailById(@Param("productId") Long productId);
+
+    // Find summaries for a set of ids (order is not preserved)
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :productIds")
+    List<ProductSummary> findSummariesByIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // Load rows for the in-memory product indexes
+    @Query(INDEX_ROW_SELECT + "ORDER BY p.id")
+    List<ProductIndexRow> findAllIndexRows();
+
+    @Query(INDEX_ROW_SELECT + "WHERE p.id IN :productIds")
+    List<ProductIndexRow> findIndexRowsByIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // Counters of active products, to reconcile the in-memory leaderboards
+    @Query("SELECT new com.hasoftware.ustore.backend.search.ProductCounterRow(" +
+            "p.id, c.id, c.parentId, p.soldCount, p.viewCount) " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.isActive = true")
+    List<ProductCounterRow> findActiveCounterRows();
 
     // Find by category
-    Page<Product> findByCategoryIdAndIsActiveTrue(Long categoryId, Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE p.category.id = :categoryId AND p.isActive = true",
+            countQuery = COUNT_SELECT + "WHERE p.category.id = :categoryId AND p.isActive = true")
+    Page<ProductSummary> findByCategoryIdAndIsActiveTrue(@Param("categoryId") Long categoryId, Pageable pageable);
 
     // Find by brand
-    Page<Product> findByBrandAndIsActiveTrue(String brand, Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE p.brand = :brand AND p.isActive = true",
+            countQuery = COUNT_SELECT + "WHERE p.brand = :brand AND p.isActive = true")
+    Page<ProductSummary> findByBrandAndIsActiveTrue(@Param("brand") String brand, Pageable pageable);
 
     // Find featured products
-    Page<Product> findByIsFeaturedTrueAndIsActiveTrue(Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE p.isFeatured = true AND p.isActive = true",
+            countQuery = COUNT_SELECT + "WHERE p.isFeatured = true AND p.isActive = true")
+    Page<ProductSummary> findByIsFeaturedTrueAndIsActiveTrue(Pageable pageable);
 
     // Find new products
-    Page<Product> findByIsNewTrueAndIsActiveTrue(Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE p.isNew = true AND p.isActive = true",
+            countQuery = COUNT_SELECT + "WHERE p.isNew = true AND p.isActive = true")
+    Page<ProductSummary> findByIsNewTrueAndIsActiveTrue(Pageable pageable);
 
-    // Search products by name or description
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
+    // Search products by name or description (fallback until the search index is built)
+    @Query(value = SUMMARY_SELECT + "WHERE p.isActive = true AND " +
             "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Product> searchProducts(@Param("keyword") String keyword, Pageable pageable);
+            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))",
+            countQuery = COUNT_SELECT + "WHERE p.isActive = true AND " +
+                    "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+                    "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+    Page<ProductSummary> searchProducts(@Param("keyword") String keyword, Pageable pageable);
 
     // Find products by price range
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
-            "p.price BETWEEN :minPrice AND :maxPrice")
-    Page<Product> findByPriceRange(@Param("minPrice") BigDecimal minPrice,
+    @Query(value = SUMMARY_SELECT + "WHERE p.isActive = true AND p.price BETWEEN :minPrice AND :maxPrice",
+            countQuery = COUNT_SELECT + "WHERE p.isActive = true AND p.price BETWEEN :minPrice AND :maxPrice")
+    Page<ProductSummary> findByPriceRange(@Param("minPrice") BigDecimal minPrice,
             @Param("maxPrice") BigDecimal maxPrice,
             Pageable pageable);
 
     // Find products by rating
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.rating >= :minRating")
-    Page<Product> findByMinRating(@Param("minRating") Double minRating, Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE p.isActive = true AND p.rating >= :minRating",
+            countQuery = COUNT_SELECT + "WHERE p.isActive = true AND p.rating >= :minRating")
+    Page<ProductSummary> findByMinRating(@Param("minRating") Double minRating, Pageable pageable);
 
     // Find products with discount
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.discountPercentage > 0")
-    Page<Product> findDiscountedProducts(Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE p.isActive = true AND p.discountPercentage > 0",
+            countQuery = COUNT_SELECT + "WHERE p.isActive = true AND p.discountPercentage > 0")
+    Page<ProductSummary> findDiscountedProducts(Pageable pageable);
 
     // Find products in stock
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.stockQuantity > 0")
-    Page<Product> findInStockProducts(Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE p.isActive = true AND p.stockQuantity > 0",
+            countQuery = COUNT_SELECT + "WHERE p.isActive = true AND p.stockQuantity > 0")
+    Page<ProductSummary> findInStockProducts(Pageable pageable);
 
-    // Find low stock products
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
-            "p.stockQuantity <= p.minStockLevel AND p.stockQuantity > 0")
-    List<Product> findLowStockProducts();
+    // Find low stock products (scans active products; served from StockAlertIndex once it is built)
+    String LOW_STOCK_WHERE = "WHERE p.isActive = true AND p.stockQuantity <= p.minStockLevel AND p.stockQuantity > 0 ";
+
+    @Query(value = SUMMARY_SELECT + LOW_STOCK_WHERE + "ORDER BY p.stockQuantity ASC, p.id ASC",
+            countQuery = COUNT_SELECT + LOW_STOCK_WHERE)
+    Page<ProductSummary> findLowStockProducts(Pageable pageable);
 
     // Find out of stock products
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.stockQuantity = 0")
-    List<Product> findOutOfStockProducts();
+    String OUT_OF_STOCK_WHERE = "WHERE p.isActive = true AND p.stockQuantity <= 0 ";
+
+    @Query(value = SUMMARY_SELECT + OUT_OF_STOCK_WHERE + "ORDER BY p.id ASC",
+            countQuery = COUNT_SELECT + OUT_OF_STOCK_WHERE)
+    Page<ProductSummary> findOutOfStockProducts(Pageable pageable);
 
     // Find by SKU
     Optional<Product> findBySku(String sku);
@@ -67,37 +139,118 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Check if SKU exists
     Boolean existsBySku(String sku);
 
-    // Find similar products (same category, different product)
-    @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND " +
-            "p.id != :productId AND p.isActive = true")
-    List<Product> findSimilarProducts(@Param("categoryId") Long categoryId,
-            @Param("productId") Long productId,
-            Pageable pageable);
-
     // Find best selling products
-    @Query("SELECT p FROM Product p WHERE p.isActive = true ORDER BY p.soldCount DESC")
-    Page<Product> findBestSellingProducts(Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE p.isActive = true ORDER BY p.soldCount DESC",
+            countQuery = COUNT_SELECT + "WHERE p.isActive = true")
+    Page<ProductSummary> findBestSellingProducts(Pageable pageable);
 
     // Find most viewed products
-    @Query("SELECT p FROM Product p WHERE p.isActive = true ORDER BY p.viewCount DESC")
-    Page<Product> findMostViewedProducts(Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE p.isActive = true ORDER BY p.viewCount DESC",
+            countQuery = COUNT_SELECT + "WHERE p.isActive = true")
+    Page<ProductSummary> findMostViewedProducts(Pageable pageable);
+
+    // Best selling and most viewed within a category or its subcategories
+    String CATEGORY_TREE_WHERE = "WHERE p.isActive = true AND " +
+            "(p.category.id = :categoryId OR p.category.parentId = :categoryId) ";
+
+    @Query(value = SUMMARY_SELECT + CATEGORY_TREE_WHERE + "ORDER BY p.soldCount DESC",
+            countQuery = COUNT_SELECT + CATEGORY_TREE_WHERE)
+    Page<ProductSummary> findBestSellingProductsByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + CATEGORY_TREE_WHERE + "ORDER BY p.viewCount DESC",
+            countQuery = COUNT_SELECT + CATEGORY_TREE_WHERE)
+    Page<ProductSummary> findMostViewedProductsByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
 
     // Find active products
-    Page<Product> findByIsActiveTrue(Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE p.isActive = true",
+            countQuery = COUNT_SELECT + "WHERE p.isActive = true")
+    Page<ProductSummary> findByIsActiveTrue(Pageable pageable);
 
     // Find products by multiple criteria
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
+    String FILTER_WHERE = "WHERE p.isActive = true AND " +
             "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
             "(:brand IS NULL OR p.brand = :brand) AND " +
             "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
             "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
             "(:minRating IS NULL OR p.rating >= :minRating) AND " +
-            "(:inStock IS NULL OR (:inStock = true AND p.stockQuantity > 0) OR (:inStock = false AND p.stockQuantity = 0))")
-    Page<Product> findProductsWithFilters(@Param("categoryId") Long categoryId,
+            "(:inStock IS NULL OR (:inStock = true AND p.stockQuantity > 0) OR (:inStock = false AND p.stockQuantity = 0))";
+
+    @Query(value = SUMMARY_SELECT + FILTER_WHERE, countQuery = COUNT_SELECT + FILTER_WHERE)
+    Page<ProductSummary> findProductsWithFilters(@Param("categoryId") Long categoryId,
             @Param("brand") String brand,
             @Param("minPrice") BigDecimal minPrice,
             @Param("maxPrice") BigDecimal maxPrice,
             @Param("minRating") Double minRating,
             @Param("inStock") Boolean inStock,
             Pageable pageable);
+
+    // Stock changes are single conditional UPDATEs, so the check and the write cannot be split
+    // by a concurrent buyer; 0 rows updated means there was not enough stock
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.updatedAt = :now " +
+            "WHERE p.id = :productId AND p.isActive = true AND p.stockQuantity >= :quantity")
+    int reserveStock(@Param("productId") Long productId, @Param("quantity") int quantity,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, " +
+            "p.soldCount = p.soldCount + :quantity, p.updatedAt = :now " +
+            "WHERE p.id = :productId AND p.stockQuantity >= :quantity")
+    int sellStock(@Param("productId") Long productId, @Param("quantity") int quantity,
+            @Param("now") LocalDateTime now);
+
+    // Give back stock of a released or expired hold
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.updatedAt = :now " +
+            "WHERE p.id = :productId")
+    int restoreStock(@Param("productId") Long productId, @Param("quantity") int quantity,
+            @Param("now") LocalDateTime now);
+
+    // Count the sale of a committed hold, whose stock was already taken
+    @Modifying
+    @Query("UPDATE Product p SET p.soldCount = p.soldCount + :quantity, p.updatedAt = :now " +
+            "WHERE p.id = :productId")
+    int addSoldCount(@Param("productId") Long productId, @Param("quantity") int quantity,
+            @Param("now") LocalDateTime now);
+
+    // Rating statistics. Review writes move one rating in or out of the histogram; rating and
+    // review_count are assigned first, from the old column values, because MySQL evaluates
+    // single-table SET clauses left to right with already updated values.
+    String HISTOGRAM_TOTAL = "(rating_1 + rating_2 + rating_3 + rating_4 + rating_5)";
+
+    @Modifying
+    @Query(value = "UPDATE products SET " +
+            "rating = COALESCE((rating_sum + :added - :removed) * 1.0 / " +
+            "NULLIF(" + HISTOGRAM_TOTAL + " + SIGN(:added) - SIGN(:removed), 0), 0), " +
+            "review_count = " + HISTOGRAM_TOTAL + " + SIGN(:added) - SIGN(:removed), " +
+            "rating_sum = rating_sum + :added - :removed, " +
+            "rating_1 = rating_1 + (CASE WHEN :added = 1 THEN 1 ELSE 0 END) " +
+            "- (CASE WHEN :removed = 1 THEN 1 ELSE 0 END), " +
+            "rating_2 = rating_2 + (CASE WHEN :added = 2 THEN 1 ELSE 0 END) " +
+            "- (CASE WHEN :removed = 2 THEN 1 ELSE 0 END), " +
+            "rating_3 = rating_3 + (CASE WHEN :added = 3 THEN 1 ELSE 0 END) " +
+            "- (CASE WHEN :removed = 3 THEN 1 ELSE 0 END), " +
+            "rating_4 = rating_4 + (CASE WHEN :added = 4 THEN 1 ELSE 0 END) " +
+            "- (CASE WHEN :removed = 4 THEN 1 ELSE 0 END), " +
+            "rating_5 = rating_5 + (CASE WHEN :added = 5 THEN 1 ELSE 0 END) " +
+            "- (CASE WHEN :removed = 5 THEN 1 ELSE 0 END), " +
+            "updated_at = :now WHERE id = :productId", nativeQuery = true)
+    int applyRatingChange(@Param("productId") Long productId, @Param("added") int added,
+            @Param("removed") int removed, @Param("now") LocalDateTime now);
+
+    // Rebuilds the statistics of one product from its reviews, in a single statement
+    String REVIEWS_OF_PRODUCT = "FROM product_reviews r WHERE r.product_id = products.id";
+
+    @Modifying
+    @Query(value = "UPDATE products SET " +
+            "rating = COALESCE((SELECT AVG(r.rating * 1.0) " + REVIEWS_OF_PRODUCT + "), 0), " +
+            "review_count = (SELECT COUNT(*) " + REVIEWS_OF_PRODUCT + "), " +
+            "rating_sum = (SELECT COALESCE(SUM(r.rating), 0) " + REVIEWS_OF_PRODUCT + "), " +
+            "rating_1 = (SELECT COUNT(*) " + REVIEWS_OF_PRODUCT + " AND r.rating = 1), " +
+            "rating_2 = (SELECT COUNT(*) " + REVIEWS_OF_PRODUCT + " AND r.rating = 2), " +
+            "rating_3 = (SELECT COUNT(*) " + REVIEWS_OF_PRODUCT + " AND r.rating = 3), " +
+            "rating_4 = (SELECT COUNT(*) " + REVIEWS_OF_PRODUCT + " AND r.rating = 4), " +
+            "rating_5 = (SELECT COUNT(*) " + REVIEWS_OF_PRODUCT + " AND r.rating = 5), " +
+            "updated_at = :now WHERE id = :productId", nativeQuery = true)
+    int recountRatings(@Param("productId") Long productId, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,20 @@
+package com.hasoftware.ustore.backend.repository;
+
+import com.hasoftware.ustore.backend.dto.ProductCursor;
+import com.hasoftware.ustore.backend.dto.ProductFilter;
+import com.hasoftware.ustore.backend.dto.ProductSummary;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+
+// Keyset (seek) queries: each reads the next rows after a cursor with a single
+// range query on (sort key, id) and no COUNT
+public interface ProductRepositoryCustom {
+
+    List<ProductSummary> findSummariesAfter(ProductListing listing, Map<String, Object> parameters,
+            Sort.Order order, ProductCursor after, int limit);
+
+    List<ProductSummary> findFilteredSummariesAfter(ProductFilter filter, Sort.Order order, ProductCursor after,
+            int limit);
+}
@@ -0,0 +1,90 @@
+package com.hasoftware.ustore.backend.repository;
+
+import com.hasoftware.ustore.backend.dto.ProductCursor;
+import com.hasoftware.ustore.backend.dto.ProductFilter;
+import com.hasoftware.ustore.backend.dto.ProductSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductSummary> findSummariesAfter(ProductListing listing, Map<String, Object> parameters,
+            Sort.Order order, ProductCursor after, int limit) {
+        return findSummariesAfter(listing.getCondition(), parameters, order, after, limit);
+    }
+
+    @Override
+    public List<ProductSummary> findFilteredSummariesAfter(ProductFilter filter, Sort.Order order,
+            ProductCursor after, int limit) {
+        // Only the criteria that are present become predicates, so the optimizer sees a plain conjunction
+        StringBuilder condition = new StringBuilder("p.isActive = true");
+        Map<String, Object> parameters = new HashMap<>();
+        if (filter.getCategoryId() != null) {
+            condition.append(" AND p.category.id = :categoryId");
+            parameters.put("categoryId", filter.getCategoryId());
+        }
+        if (filter.getBrand() != null) {
+            condition.append(" AND p.brand = :brand");
+            parameters.put("brand", filter.getBrand());
+        }
+        if (filter.getMinPrice() != null) {
+            condition.append(" AND p.price >= :minPrice");
+            parameters.put("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            condition.append(" AND p.price <= :maxPrice");
+            parameters.put("maxPrice", filter.getMaxPrice());
+        }
+        if (filter.getMinRating() != null) {
+            condition.append(" AND p.rating >= :minRating");
+            parameters.put("minRating", filter.getMinRating());
+        }
+        if (filter.getInStock() != null) {
+            condition.append(filter.getInStock() ? " AND p.stockQuantity > 0" : " AND p.stockQuantity = 0");
+        }
+        return findSummariesAfter(condition.toString(), parameters, order, after, limit);
+    }
+
+    private List<ProductSummary> findSummariesAfter(String condition, Map<String, Object> parameters,
+            Sort.Order order, ProductCursor after, int limit) {
+        // The property is checked against ProductCursor's sortable properties before reaching here
+        String key = "p." + order.getProperty();
+        String comparison = order.isDescending() ? " < " : " > ";
+        String direction = order.isDescending() ? " DESC" : " ASC";
+
+        StringBuilder jpql = new StringBuilder(ProductRepository.SUMMARY_SELECT)
+                .append("WHERE ").append(condition);
+        if (after != null) {
+            if ("id".equals(order.getProperty())) {
+                jpql.append(" AND p.id").append(comparison).append(":lastId");
+            } else {
+                jpql.append(" AND (").append(key).append(comparison).append(":lastKey OR (")
+                        .append(key).append(" = :lastKey AND p.id").append(comparison).append(":lastId))");
+            }
+        }
+        jpql.append(" ORDER BY ").append(key).append(direction);
+        if (!"id".equals(order.getProperty())) {
+            jpql.append(", p.id").append(direction);
+        }
+
+        TypedQuery<ProductSummary> query = entityManager.createQuery(jpql.toString(), ProductSummary.class);
+        parameters.forEach(query::setParameter);
+        if (after != null) {
+            query.setParameter("lastId", after.getId());
+            if (!"id".equals(order.getProperty())) {
+                query.setParameter("lastKey", after.getKey());
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+}
@@ -1,13 +1,18 @@
 package com.hasoftware.ustore.backend.repository;
 
+import com.hasoftware.ustore.backend.dto.ReviewView;
 import com.hasoftware.ustore.backend.entity.ProductReview;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,6 +24,11 @@ public interface ProductReviewRepository extends JpaRepository<ProductReview, Lo
     // Find reviews by user
     Page<ProductReview> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
 
+    // Lock a review while its rating moves in the product's histogram
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pr FROM ProductReview pr WHERE pr.id = :reviewId")
+    Optional<ProductReview> findByIdForUpdate(@Param("reviewId") Long reviewId);
+
     // Find review by user and product
     Optional<ProductReview> findByUserIdAndProductId(Long userId, Long productId);
 
@@ -41,10 +51,36 @@ public interface ProductReviewRepository extends JpaRepository<ProductReview, Lo
     @Query("SELECT AVG(pr.rating) FROM ProductReview pr WHERE pr.product.id = :productId")
     Double calculateAverageRating(@Param("productId") Long productId);
 
-    // Find helpful reviews
-    @Query("SELECT pr FROM ProductReview pr WHERE pr.product.id = :productId ORDER BY (pr.helpfulCount - pr.notHelpfulCount) DESC")
+    // Find helpful reviews, in the order of the (product_id, helpfulness_score, id) index
+    @Query("SELECT pr FROM ProductReview pr WHERE pr.product.id = :productId " +
+            "ORDER BY pr.helpfulnessScore DESC, pr.id DESC")
     Page<ProductReview> findMostHelpfulReviews(@Param("productId") Long productId, Pageable pageable);
 
+    // Review listings read ReviewView projections: no entity, and no association is resolved per row
+    String VIEW_SELECT = "SELECT new com.hasoftware.ustore.backend.dto.ReviewView(pr.id, pr.product.id, pr.user.id, " +
+            "pr.rating, pr.comment, pr.isVerifiedPurchase, pr.helpfulCount, pr.notHelpfulCount, pr.helpfulnessScore, " +
+            "pr.createdAt) FROM ProductReview pr ";
+
+    // Most helpful first, in the order of the (product_id, helpfulness_score, id) index
+    @Query(VIEW_SELECT + "WHERE pr.product.id = :productId ORDER BY pr.helpfulnessScore DESC, pr.id DESC")
+    List<ReviewView> findMostHelpfulViews(@Param("productId") Long productId, Pageable pageable);
+
+    // Keyset continuation of findMostHelpfulViews after the given score and id
+    @Query(VIEW_SELECT + "WHERE pr.product.id = :productId AND (pr.helpfulnessScore < :score " +
+            "OR (pr.helpfulnessScore = :score AND pr.id < :lastId)) ORDER BY pr.helpfulnessScore DESC, pr.id DESC")
+    List<ReviewView> findMostHelpfulViewsAfter(@Param("productId") Long productId, @Param("score") Integer score,
+            @Param("lastId") Long lastId, Pageable pageable);
+
+    // Newest first, in the order of the (product_id, created_at, id) index
+    @Query(VIEW_SELECT + "WHERE pr.product.id = :productId ORDER BY pr.createdAt DESC, pr.id DESC")
+    List<ReviewView> findRecentViews(@Param("productId") Long productId, Pageable pageable);
+
+    // Keyset continuation of findRecentViews after the given creation time and id
+    @Query(VIEW_SELECT + "WHERE pr.product.id = :productId AND (pr.createdAt < :createdAt " +
+            "OR (pr.createdAt = :createdAt AND pr.id < :lastId)) ORDER BY pr.createdAt DESC, pr.id DESC")
+    List<ReviewView> findRecentViewsAfter(@Param("productId") Long productId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("lastId") Long lastId, Pageable pageable);
+
     // Find recent reviews
     @Query("SELECT pr FROM ProductReview pr WHERE pr.product.id = :productId ORDER BY pr.createdAt DESC")
     Page<ProductReview> findRecentReviews(@Param("productId") Long productId, Pageable pageable);
@@ -0,0 +1,40 @@
+package com.hasoftware.ustore.backend.repository;
+
+import com.hasoftware.ustore.backend.entity.StockReservation;
+import com.hasoftware.ustore.backend.entity.StockReservation.Status;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // Find the lines of a reservation, in product order
+    List<StockReservation> findByReservationKeyOrderByProductIdAsc(String reservationKey);
+
+    // Move every held line of a reservation to another status. Racing transitions of the same
+    // reservation serialize on the row locks, and the status guard leaves 0 rows to the loser.
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :status, r.updatedAt = :now " +
+            "WHERE r.reservationKey = :reservationKey AND r.status = :held")
+    int updateHeldStatus(@Param("reservationKey") String reservationKey, @Param("held") Status held,
+            @Param("status") Status status, @Param("now") LocalDateTime now);
+
+    // Same, for holds that have not expired yet
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :status, r.updatedAt = :now " +
+            "WHERE r.reservationKey = :reservationKey AND r.status = :held AND r.expiresAt > :now")
+    int updateUnexpiredHeldStatus(@Param("reservationKey") String reservationKey, @Param("held") Status held,
+            @Param("status") Status status, @Param("now") LocalDateTime now);
+
+    // Reservations with lines past their expiry time
+    @Query("SELECT DISTINCT r.reservationKey FROM StockReservation r WHERE r.status = :held AND r.expiresAt <= :now")
+    List<String> findExpiredReservationKeys(@Param("held") Status held, @Param("now") LocalDateTime now,
+            Pageable pageable);
+}
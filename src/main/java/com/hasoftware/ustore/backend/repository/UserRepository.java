@@ -1,11 +1,14 @@
 package com.hasoftware.ustore.backend.repository;
 
+import com.hasoftware.ustore.backend.dto.ReviewAuthor;
 import com.hasoftware.ustore.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -24,4 +27,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u FROM User u WHERE u.isActive = true AND (u.username = :username OR u.email = :username)")
     Optional<User> findActiveUserByUsernameOrEmail(@Param("username") String username);
+
+    // Display data of several review authors in one query
+    @Query("SELECT new com.hasoftware.ustore.backend.dto.ReviewAuthor(u.id, u.username, u.fullName, u.profileImage) " +
+            "FROM User u WHERE u.id IN :userIds")
+    List<ReviewAuthor> findReviewAuthorsByIdIn(@Param("userIds") Collection<Long> userIds);
 }
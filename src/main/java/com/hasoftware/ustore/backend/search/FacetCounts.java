@@ -0,0 +1,82 @@
+package com.hasoftware.ustore.backend.search;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// The requested page of matching ids and raw facet counts produced by ProductAttributeIndex
+public class FacetCounts {
+
+    private final IndexPage products;
+    private final Map<String, Long> brands = new HashMap<>();
+    private final Map<Long, Long> categories = new HashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final long[] priceBuckets;
+    private final long[] ratingsAtLeast = new long[ProductAttributeIndex.MAX_RATING_FLOOR + 1];
+    private long inStock;
+    private long outOfStock;
+
+    FacetCounts(IndexPage products, int priceBucketCount) {
+        this.products = products;
+        this.priceBuckets = new long[priceBucketCount];
+    }
+
+    void countBrand(String brand) {
+        brands.merge(brand, 1L, Long::sum);
+    }
+
+    void countCategory(Long categoryId, String name) {
+        categories.merge(categoryId, 1L, Long::sum);
+        categoryNames.putIfAbsent(categoryId, name);
+    }
+
+    void countPriceBucket(int bucket) {
+        priceBuckets[bucket]++;
+    }
+
+    void countRating(double rating) {
+        for (int floor = 1; floor <= ProductAttributeIndex.MAX_RATING_FLOOR && rating >= floor; floor++) {
+            ratingsAtLeast[floor]++;
+        }
+    }
+
+    void countStock(boolean available) {
+        if (available) {
+            inStock++;
+        } else {
+            outOfStock++;
+        }
+    }
+
+    public IndexPage getProducts() {
+        return products;
+    }
+
+    public Map<String, Long> getBrands() {
+        return brands;
+    }
+
+    public Map<Long, Long> getCategories() {
+        return categories;
+    }
+
+    public Map<Long, String> getCategoryNames() {
+        return categoryNames;
+    }
+
+    public long[] getPriceBuckets() {
+        return priceBuckets;
+    }
+
+    // Index n holds the number of products rated n or more
+    public long[] getRatingsAtLeast() {
+        return ratingsAtLeast;
+    }
+
+    public long getInStock() {
+        return inStock;
+    }
+
+    public long getOutOfStock() {
+        return outOfStock;
+    }
+}
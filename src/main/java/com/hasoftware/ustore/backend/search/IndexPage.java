@@ -0,0 +1,23 @@
+package com.hasoftware.ustore.backend.search;
+
+import java.util.List;
+
+// One requested page of ids out of an index lookup, with the number of products that matched
+public class IndexPage {
+
+    private final List<Long> productIds;
+    private final long total;
+
+    IndexPage(List<Long> productIds, long total) {
+        this.productIds = productIds;
+        this.total = total;
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
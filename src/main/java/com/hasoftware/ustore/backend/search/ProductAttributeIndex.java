@@ -0,0 +1,535 @@
+package com.hasoftware.ustore.backend.search;
+
+import com.hasoftware.ustore.backend.dto.ProductFilter;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntBinaryOperator;
+
+// Column-oriented copy of the filterable attributes of active products. Each product
+// occupies a slot and every attribute is a primitive array indexed by slot, so a
+// filter plus all of its facet counts is a single scan over a few arrays.
+// Categorical attributes and flags also keep a compressed bitmap of slots per value,
+// so equality filters are bitmap intersections and only range criteria need a scan.
+@Component
+public class ProductAttributeIndex implements ProductIndex {
+
+    public static final int MAX_RATING_FLOOR = 4;
+
+    public enum Flag {
+        FEATURED, NEW, DISCOUNTED, IN_STOCK
+    }
+
+    // Sort properties that can be ordered from the columns, as accepted by the listing endpoints
+    private static final Set<String> SORTABLE = Set.of("id", "price", "rating", "soldCount", "viewCount",
+            "createdAt");
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long NO_CATEGORY = -1;
+    private static final int NO_BRAND = -1;
+    // Filter value for a brand no product has; unlike NO_BRAND it matches no slot
+    private static final int UNKNOWN_BRAND = -2;
+
+    // Facets, in the order used by the single-pass evaluation
+    private static final int FACET_CATEGORY = 0;
+    private static final int FACET_BRAND = 1;
+    private static final int FACET_PRICE = 2;
+    private static final int FACET_RATING = 3;
+    private static final int FACET_STOCK = 4;
+    private static final int NO_FAILURE = -1;
+    private static final int SEVERAL_FAILURES = -2;
+
+    @Value("${product.facets.price-buckets:1000000,5000000,10000000,20000000,30000000}")
+    private BigDecimal[] priceBucketBounds;
+
+    private long[] bucketBoundsInCents;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int slotCount;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] categoryIds = new long[INITIAL_CAPACITY];
+    private int[] brands = new int[INITIAL_CAPACITY];
+    private long[] pricesInCents = new long[INITIAL_CAPACITY];
+    private double[] ratings = new double[INITIAL_CAPACITY];
+    private int[] stockQuantities = new int[INITIAL_CAPACITY];
+    private int[] soldCounts = new int[INITIAL_CAPACITY];
+    private int[] viewCounts = new int[INITIAL_CAPACITY];
+    private long[] createdAt = new long[INITIAL_CAPACITY];
+
+    // Dictionaries for string-valued columns
+    private final Map<String, Integer> brandOrdinals = new HashMap<>();
+    private final List<String> brandNames = new ArrayList<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+
+    // Slot bitmaps
+    private final RoaringBitmap liveSlots = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> categorySlots = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> brandSlots = new HashMap<>();
+    private final Map<Flag, RoaringBitmap> flagSlots = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        bucketBoundsInCents = new long[priceBucketBounds.length];
+        for (int i = 0; i < priceBucketBounds.length; i++) {
+            bucketBoundsInCents[i] = toCents(priceBucketBounds[i]);
+        }
+        Arrays.sort(bucketBoundsInCents);
+        for (Flag flag : Flag.values()) {
+            flagSlots.put(flag, new RoaringBitmap());
+        }
+    }
+
+    @Override
+    public void rebuild(List<ProductIndexRow> rows) {
+        lock.writeLock().lock();
+        try {
+            slotsById.clear();
+            freeSlots.clear();
+            slotCount = 0;
+            liveSlots.clear();
+            categorySlots.clear();
+            brandSlots.clear();
+            flagSlots.values().forEach(RoaringBitmap::clear);
+            for (ProductIndexRow row : rows) {
+                if (Boolean.TRUE.equals(row.getIsActive())) {
+                    put(row);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(ProductIndexRow row) {
+        lock.writeLock().lock();
+        try {
+            if (Boolean.TRUE.equals(row.getIsActive())) {
+                put(row);
+            } else {
+                delete(row.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            delete(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Price bucket bounds in configured currency units, ascending
+    public BigDecimal[] getPriceBucketBounds() {
+        BigDecimal[] bounds = new BigDecimal[bucketBoundsInCents.length];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = BigDecimal.valueOf(bucketBoundsInCents[i], 2);
+        }
+        return bounds;
+    }
+
+    public static boolean supportsSort(Sort sort) {
+        if (sort == null || sort.isUnsorted()) {
+            return true;
+        }
+        List<Sort.Order> orders = sort.toList();
+        return orders.size() == 1 && SORTABLE.contains(orders.get(0).getProperty());
+    }
+
+    // The requested page of active products matching the filter (keyword excepted), in the
+    // pageable's order. Category, brand and stock are bitmap intersections; price and rating
+    // are checked only for the slots that survive them.
+    public IndexPage filter(ProductFilter filter, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap candidates = liveSlots;
+            if (filter.getCategoryId() != null) {
+                candidates = RoaringBitmap.and(candidates,
+                        categorySlots.getOrDefault(filter.getCategoryId(), new RoaringBitmap()));
+            }
+            if (filter.getBrand() != null) {
+                Integer brand = brandOrdinals.get(TextAnalyzer.fold(filter.getBrand()));
+                candidates = RoaringBitmap.and(candidates,
+                        brand != null ? brandSlots.getOrDefault(brand, new RoaringBitmap()) : new RoaringBitmap());
+            }
+            if (filter.getInStock() != null) {
+                candidates = filter.getInStock()
+                        ? RoaringBitmap.and(candidates, flagSlots.get(Flag.IN_STOCK))
+                        : RoaringBitmap.andNot(candidates, flagSlots.get(Flag.IN_STOCK));
+            }
+
+            long minPrice = filter.getMinPrice() != null ? toCents(filter.getMinPrice()) : Long.MIN_VALUE;
+            long maxPrice = filter.getMaxPrice() != null ? toCents(filter.getMaxPrice()) : Long.MAX_VALUE;
+            double minRating = filter.getMinRating() != null ? filter.getMinRating() : Double.NEGATIVE_INFINITY;
+            int[] matched = new int[candidates.getCardinality()];
+            int count = 0;
+            IntIterator slots = candidates.getIntIterator();
+            while (slots.hasNext()) {
+                int slot = slots.next();
+                if (pricesInCents[slot] >= minPrice && pricesInCents[slot] <= maxPrice
+                        && ratings[slot] >= minRating) {
+                    matched[count++] = slot;
+                }
+            }
+            return page(matched, count, pageable, false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The requested page of active products carrying the flag, in the pageable's order
+    public IndexPage flagged(Flag flag, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            int[] matched = flagSlots.get(flag).toArray();
+            return page(matched, matched.length, pageable, false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Evaluates the filter and counts every facet in one pass. A product that fails exactly
+    // one criterion still counts towards that criterion's facet, so each facet shows what
+    // selecting another value would return. rankedIds, when given, restricts and orders the
+    // candidates (e.g. search results); otherwise all active products are candidates.
+    public FacetCounts evaluate(ProductFilter filter, List<Long> rankedIds, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidateSlots(rankedIds);
+            Integer brandFilter = null;
+            if (filter.getBrand() != null) {
+                brandFilter = brandOrdinals.getOrDefault(TextAnalyzer.fold(filter.getBrand()), UNKNOWN_BRAND);
+            }
+            long minPrice = filter.getMinPrice() != null ? toCents(filter.getMinPrice()) : Long.MIN_VALUE;
+            long maxPrice = filter.getMaxPrice() != null ? toCents(filter.getMaxPrice()) : Long.MAX_VALUE;
+
+            int[] matched = new int[candidates.length];
+            int count = 0;
+            int[] failures = new int[candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                int slot = candidates[i];
+                int failed = NO_FAILURE;
+                if (filter.getCategoryId() != null && categoryIds[slot] != filter.getCategoryId()) {
+                    failed = fail(failed, FACET_CATEGORY);
+                }
+                if (brandFilter != null && brands[slot] != brandFilter) {
+                    failed = fail(failed, FACET_BRAND);
+                }
+                if (pricesInCents[slot] < minPrice || pricesInCents[slot] > maxPrice) {
+                    failed = fail(failed, FACET_PRICE);
+                }
+                if (filter.getMinRating() != null && ratings[slot] < filter.getMinRating()) {
+                    failed = fail(failed, FACET_RATING);
+                }
+                if (filter.getInStock() != null && (stockQuantities[slot] > 0) != filter.getInStock()) {
+                    failed = fail(failed, FACET_STOCK);
+                }
+                failures[i] = failed;
+                if (failed == NO_FAILURE) {
+                    matched[count++] = slot;
+                }
+            }
+
+            FacetCounts counts = new FacetCounts(page(matched, count, pageable, rankedIds != null),
+                    bucketBoundsInCents.length + 1);
+            for (int i = 0; i < candidates.length; i++) {
+                int failed = failures[i];
+                if (failed == SEVERAL_FAILURES) {
+                    continue;
+                }
+                int slot = candidates[i];
+                if (failed == NO_FAILURE || failed == FACET_CATEGORY) {
+                    if (categoryIds[slot] != NO_CATEGORY) {
+                        counts.countCategory(categoryIds[slot], categoryNames.get(categoryIds[slot]));
+                    }
+                }
+                if (failed == NO_FAILURE || failed == FACET_BRAND) {
+                    if (brands[slot] != NO_BRAND) {
+                        counts.countBrand(brandNames.get(brands[slot]));
+                    }
+                }
+                if (failed == NO_FAILURE || failed == FACET_PRICE) {
+                    counts.countPriceBucket(priceBucket(pricesInCents[slot]));
+                }
+                if (failed == NO_FAILURE || failed == FACET_RATING) {
+                    counts.countRating(ratings[slot]);
+                }
+                if (failed == NO_FAILURE || failed == FACET_STOCK) {
+                    counts.countStock(stockQuantities[slot] > 0);
+                }
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] candidateSlots(List<Long> rankedIds) {
+        if (rankedIds == null) {
+            return liveSlots.toArray();
+        }
+
+        int[] slots = new int[rankedIds.size()];
+        int n = 0;
+        for (Long productId : rankedIds) {
+            Integer slot = slotsById.get(productId);
+            if (slot != null) {
+                slots[n++] = slot;
+            }
+        }
+        return Arrays.copyOf(slots, n);
+    }
+
+    // Ids of the page out of the first count matched slots. Only offset + size slots are ever
+    // ordered: a bounded max-heap keeps the best of them in one pass over the matches and is
+    // then sorted in place, so a deep page costs O(n log k) and a first page almost a scan.
+    private IndexPage page(int[] slots, int count, Pageable pageable, boolean keepRanking) {
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        if (offset >= count) {
+            return new IndexPage(List.of(), count);
+        }
+        int from = (int) offset;
+        int to = pageable.isPaged() ? (int) Math.min(offset + pageable.getPageSize(), count) : count;
+
+        Sort sort = pageable.getSort();
+        int[] best;
+        if (sort.isUnsorted() && keepRanking) {
+            best = slots;
+        } else {
+            IntBinaryOperator order = slotOrder(sort);
+            best = new int[to];
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                int slot = slots[i];
+                if (size < to) {
+                    best[size] = slot;
+                    siftUp(best, size++, order);
+                } else if (order.applyAsInt(slot, best[0]) < 0) {
+                    best[0] = slot;
+                    siftDown(best, 0, size, order);
+                }
+            }
+            for (int end = size - 1; end > 0; end--) {
+                int last = best[end];
+                best[end] = best[0];
+                best[0] = last;
+                siftDown(best, 0, end, order);
+            }
+        }
+
+        List<Long> productIds = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            productIds.add(ids[best[i]]);
+        }
+        return new IndexPage(productIds, count);
+    }
+
+    // Compares two slots in the requested order, ties broken by ascending id; unsorted means by id
+    private IntBinaryOperator slotOrder(Sort sort) {
+        IntBinaryOperator byId = (a, b) -> Long.compare(ids[a], ids[b]);
+        if (sort.isUnsorted()) {
+            return byId;
+        }
+
+        Sort.Order order = sort.iterator().next();
+        IntBinaryOperator byKey;
+        switch (order.getProperty()) {
+            case "price":
+                byKey = (a, b) -> Long.compare(pricesInCents[a], pricesInCents[b]);
+                break;
+            case "rating":
+                byKey = (a, b) -> Double.compare(ratings[a], ratings[b]);
+                break;
+            case "soldCount":
+                byKey = (a, b) -> Integer.compare(soldCounts[a], soldCounts[b]);
+                break;
+            case "viewCount":
+                byKey = (a, b) -> Integer.compare(viewCounts[a], viewCounts[b]);
+                break;
+            case "createdAt":
+                byKey = (a, b) -> Long.compare(createdAt[a], createdAt[b]);
+                break;
+            default:
+                byKey = byId;
+        }
+        boolean descending = order.isDescending();
+        return (a, b) -> {
+            int byOrder = descending ? byKey.applyAsInt(b, a) : byKey.applyAsInt(a, b);
+            return byOrder != 0 ? byOrder : byId.applyAsInt(a, b);
+        };
+    }
+
+    // Max-heap on the slot order: the root is the worst slot kept so far
+    private static void siftUp(int[] heap, int index, IntBinaryOperator order) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (order.applyAsInt(slot, heap[parent]) <= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    private static void siftDown(int[] heap, int index, int size, IntBinaryOperator order) {
+        int slot = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && order.applyAsInt(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (order.applyAsInt(heap[child], slot) <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+
+    private int priceBucket(long priceInCents) {
+        int bucket = 0;
+        while (bucket < bucketBoundsInCents.length && priceInCents >= bucketBoundsInCents[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private void put(ProductIndexRow row) {
+        Integer slot = slotsById.get(row.getId());
+        if (slot == null) {
+            slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+            ensureCapacity(slotCount);
+            slotsById.put(row.getId(), slot);
+        } else {
+            unmark(slot);
+        }
+
+        ids[slot] = row.getId();
+        categoryIds[slot] = row.getCategoryId() != null ? row.getCategoryId() : NO_CATEGORY;
+        if (row.getCategoryId() != null) {
+            categoryNames.put(row.getCategoryId(), row.getCategoryName());
+        }
+        brands[slot] = brandOrdinal(row.getBrand());
+        pricesInCents[slot] = row.getPrice() != null ? toCents(row.getPrice()) : 0;
+        ratings[slot] = row.getRating() != null ? row.getRating() : 0.0;
+        stockQuantities[slot] = row.getStockQuantity() != null ? row.getStockQuantity() : 0;
+        soldCounts[slot] = row.getSoldCount() != null ? row.getSoldCount() : 0;
+        viewCounts[slot] = row.getViewCount() != null ? row.getViewCount() : 0;
+        createdAt[slot] = row.getCreatedAt() != null ? row.getCreatedAt().toEpochSecond(ZoneOffset.UTC) : 0;
+
+        liveSlots.add(slot);
+        if (categoryIds[slot] != NO_CATEGORY) {
+            categorySlots.computeIfAbsent(categoryIds[slot], key -> new RoaringBitmap()).add(slot);
+        }
+        if (brands[slot] != NO_BRAND) {
+            brandSlots.computeIfAbsent(brands[slot], key -> new RoaringBitmap()).add(slot);
+        }
+        if (Boolean.TRUE.equals(row.getIsFeatured())) {
+            flagSlots.get(Flag.FEATURED).add(slot);
+        }
+        if (Boolean.TRUE.equals(row.getIsNew())) {
+            flagSlots.get(Flag.NEW).add(slot);
+        }
+        if (row.getDiscountPercentage() != null && row.getDiscountPercentage() > 0) {
+            flagSlots.get(Flag.DISCOUNTED).add(slot);
+        }
+        if (stockQuantities[slot] > 0) {
+            flagSlots.get(Flag.IN_STOCK).add(slot);
+        }
+    }
+
+    // Clears the slot from every bitmap, using the column values it was indexed with
+    private void unmark(int slot) {
+        liveSlots.remove(slot);
+        unmark(categorySlots, categoryIds[slot], slot);
+        unmark(brandSlots, brands[slot], slot);
+        for (RoaringBitmap bitmap : flagSlots.values()) {
+            bitmap.remove(slot);
+        }
+    }
+
+    private static <K> void unmark(Map<K, RoaringBitmap> bitmaps, K key, int slot) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(slot);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private void delete(Long productId) {
+        Integer slot = slotsById.remove(productId);
+        if (slot != null) {
+            unmark(slot);
+            freeSlots.push(slot);
+        }
+    }
+
+    private int brandOrdinal(String brand) {
+        if (brand == null) {
+            return NO_BRAND;
+        }
+        return brandOrdinals.computeIfAbsent(TextAnalyzer.fold(brand), key -> {
+            brandNames.add(brand);
+            return brandNames.size() - 1;
+        });
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        brands = Arrays.copyOf(brands, capacity);
+        pricesInCents = Arrays.copyOf(pricesInCents, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+        stockQuantities = Arrays.copyOf(stockQuantities, capacity);
+        soldCounts = Arrays.copyOf(soldCounts, capacity);
+        viewCounts = Arrays.copyOf(viewCounts, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+    }
+
+    private static int fail(int failed, int facet) {
+        return failed == NO_FAILURE ? facet : SEVERAL_FAILURES;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+}
@@ -0,0 +1,63 @@
+package com.hasoftware.ustore.backend.search;
+
+// Sales and view counters of an active product, used to reconcile the leaderboards
+public class ProductCounterRow {
+
+    private Long id;
+    private Long categoryId;
+    private Long categoryParentId;
+    private Integer soldCount;
+    private Integer viewCount;
+
+    public ProductCounterRow() {
+    }
+
+    public ProductCounterRow(Long id, Long categoryId, Long categoryParentId, Integer soldCount,
+            Integer viewCount) {
+        this.id = id;
+        this.categoryId = categoryId;
+        this.categoryParentId = categoryParentId;
+        this.soldCount = soldCount;
+        this.viewCount = viewCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getCategoryParentId() {
+        return categoryParentId;
+    }
+
+    public void setCategoryParentId(Long categoryParentId) {
+        this.categoryParentId = categoryParentId;
+    }
+
+    public Integer getSoldCount() {
+        return soldCount;
+    }
+
+    public void setSoldCount(Integer soldCount) {
+        this.soldCount = soldCount;
+    }
+
+    public Integer getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(Integer viewCount) {
+        this.viewCount = viewCount;
+    }
+}
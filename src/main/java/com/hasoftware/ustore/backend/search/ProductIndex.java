@@ -0,0 +1,16 @@
+package com.hasoftware.ustore.backend.search;
+
+import java.util.List;
+
+// In-memory structure derived from the products table and kept current by ProductIndexer
+public interface ProductIndex {
+
+    // Replaces the whole index with the given rows
+    void rebuild(List<ProductIndexRow> rows);
+
+    // Adds or replaces a single product
+    void upsert(ProductIndexRow row);
+
+    // Drops a product that no longer exists
+    void remove(Long productId);
+}
@@ -0,0 +1,270 @@
+package com.hasoftware.ustore.backend.search;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Everything the in-memory product indexes need about one product, loaded by a single projection query
+public class ProductIndexRow {
+
+    private Long id;
+    private String name;
+    private String description;
+    private String brand;
+    private String sku;
+    private BigDecimal price;
+    private BigDecimal originalPrice;
+    private Integer discountPercentage;
+    private Integer stockQuantity;
+    private Integer minStockLevel;
+    private Boolean isActive;
+    private Boolean isFeatured;
+    private Boolean isNew;
+    private String color;
+    private String size;
+    private String material;
+    private Double rating;
+    private Integer reviewCount;
+    private Integer viewCount;
+    private Integer soldCount;
+    private Long categoryId;
+    private Long categoryParentId;
+    private String categoryName;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public ProductIndexRow() {
+    }
+
+    public ProductIndexRow(Long id, String name, String description, String brand, String sku,
+            BigDecimal price, BigDecimal originalPrice, Integer discountPercentage, Integer stockQuantity,
+            Integer minStockLevel, Boolean isActive, Boolean isFeatured, Boolean isNew, String color,
+            String size, String material, Double rating, Integer reviewCount, Integer viewCount,
+            Integer soldCount, Long categoryId, Long categoryParentId, String categoryName,
+            LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.brand = brand;
+        this.sku = sku;
+        this.price = price;
+        this.originalPrice = originalPrice;
+        this.discountPercentage = discountPercentage;
+        this.stockQuantity = stockQuantity;
+        this.minStockLevel = minStockLevel;
+        this.isActive = isActive;
+        this.isFeatured = isFeatured;
+        this.isNew = isNew;
+        this.color = color;
+        this.size = size;
+        this.material = material;
+        this.rating = rating;
+        this.reviewCount = reviewCount;
+        this.viewCount = viewCount;
+        this.soldCount = soldCount;
+        this.categoryId = categoryId;
+        this.categoryParentId = categoryParentId;
+        this.categoryName = categoryName;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public BigDecimal getOriginalPrice() {
+        return originalPrice;
+    }
+
+    public void setOriginalPrice(BigDecimal originalPrice) {
+        this.originalPrice = originalPrice;
+    }
+
+    public Integer getDiscountPercentage() {
+        return discountPercentage;
+    }
+
+    public void setDiscountPercentage(Integer discountPercentage) {
+        this.discountPercentage = discountPercentage;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public Integer getMinStockLevel() {
+        return minStockLevel;
+    }
+
+    public void setMinStockLevel(Integer minStockLevel) {
+        this.minStockLevel = minStockLevel;
+    }
+
+    public Boolean getIsActive() {
+        return isActive;
+    }
+
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+
+    public Boolean getIsFeatured() {
+        return isFeatured;
+    }
+
+    public void setIsFeatured(Boolean isFeatured) {
+        this.isFeatured = isFeatured;
+    }
+
+    public Boolean getIsNew() {
+        return isNew;
+    }
+
+    public void setIsNew(Boolean isNew) {
+        this.isNew = isNew;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public String getSize() {
+        return size;
+    }
+
+    public void setSize(String size) {
+        this.size = size;
+    }
+
+    public String getMaterial() {
+        return material;
+    }
+
+    public void setMaterial(String material) {
+        this.material = material;
+    }
+
+    public Double getRating() {
+        return rating;
+    }
+
+    public void setRating(Double rating) {
+        this.rating = rating;
+    }
+
+    public Integer getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(Integer reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public Integer getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(Integer viewCount) {
+        this.viewCount = viewCount;
+    }
+
+    public Integer getSoldCount() {
+        return soldCount;
+    }
+
+    public void setSoldCount(Integer soldCount) {
+        this.soldCount = soldCount;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getCategoryParentId() {
+        return categoryParentId;
+    }
+
+    public void setCategoryParentId(Long categoryParentId) {
+        this.categoryParentId = categoryParentId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,192 @@
+package com.hasoftware.ustore.backend.search;
+
+import com.hasoftware.ustore.backend.event.CategoryChangedEvent;
+import com.hasoftware.ustore.backend.event.ProductChangedEvent;
+import com.hasoftware.ustore.backend.repository.ProductRepository;
+import com.hasoftware.ustore.backend.service.CatalogVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Loads the catalog once at startup and feeds every ProductIndex, then applies
+// committed product changes to all of them on a single background worker that merges
+// whatever accumulated since its last pass. The catalog version moves only once every
+// index has caught up, so a new list tag is never paired with an older body.
+@Component
+public class ProductIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductIndexer.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private List<ProductIndex> indexes;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    @Qualifier("productIndexExecutor")
+    private ThreadPoolTaskExecutor productIndexExecutor;
+
+    @Value("${product.index.rebuild-threshold:500}")
+    private int rebuildThreshold;
+
+    @Value("${product.index.retry-delay:1000}")
+    private long retryDelay;
+
+    @Value("${product.index.max-retry-delay:60000}")
+    private long maxRetryDelay;
+
+    // Changes committed but not yet applied, guarded by the pending lock
+    private final Object pending = new Object();
+    private final Set<Long> pendingIds = new HashSet<>();
+    private boolean pendingRebuild;
+    private boolean pendingCategories;
+    private boolean drainScheduled;
+    private int failedPasses;
+
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildAll();
+    }
+
+    // Synchronized with change events so a rebuild never overwrites a newer change
+    @Transactional(readOnly = true)
+    public synchronized void rebuildAll() {
+        long start = System.currentTimeMillis();
+        List<ProductIndexRow> rows = productRepository.findAllIndexRows();
+        for (ProductIndex index : indexes) {
+            index.rebuild(rows);
+        }
+        catalogVersion.productsLoaded(rows);
+        ready = true;
+        logger.info("Built {} product indexes from {} products in {} ms", indexes.size(), rows.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    // Runs in the committing thread, so it only records the change; the index worker applies it
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (pending) {
+            if (!pendingRebuild) {
+                pendingIds.addAll(event.getProductIds());
+                // Bulk writes touch too many products for per-row updates to beat a full rebuild
+                if (pendingIds.size() > rebuildThreshold) {
+                    pendingRebuild = true;
+                    pendingIds.clear();
+                }
+            }
+            scheduleDrain();
+        }
+    }
+
+    // Rows carry the category name and parent, so a category change reloads everything
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        synchronized (pending) {
+            pendingRebuild = true;
+            pendingCategories = true;
+            pendingIds.clear();
+            scheduleDrain();
+        }
+    }
+
+    // Caller holds the pending lock. Changes arriving while a pass runs are merged into the next one.
+    private void scheduleDrain() {
+        if (!drainScheduled) {
+            drainScheduled = true;
+            productIndexExecutor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        Set<Long> productIds;
+        boolean rebuild;
+        boolean categories;
+        synchronized (pending) {
+            productIds = new HashSet<>(pendingIds);
+            rebuild = pendingRebuild;
+            categories = pendingCategories;
+            pendingIds.clear();
+            pendingRebuild = false;
+            pendingCategories = false;
+            drainScheduled = false;
+        }
+
+        try {
+            if (rebuild) {
+                rebuildAll();
+                if (categories) {
+                    catalogVersion.categoriesChanged();
+                }
+            } else if (!productIds.isEmpty()) {
+                apply(productIds);
+            }
+            synchronized (pending) {
+                failedPasses = 0;
+            }
+        } catch (RuntimeException e) {
+            // Retried after a growing delay, merged with whatever arrives meanwhile; the indexes
+            // serve the older rows until a pass succeeds
+            long delay;
+            synchronized (pending) {
+                pendingRebuild |= rebuild;
+                pendingCategories |= categories;
+                if (!pendingRebuild) {
+                    pendingIds.addAll(productIds);
+                }
+                delay = retryDelay(failedPasses++);
+                if (!drainScheduled) {
+                    drainScheduled = true;
+                    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, productIndexExecutor)
+                            .execute(this::drain);
+                }
+            }
+            logger.error("Failed to apply product changes to the indexes, retrying in {} ms", delay, e);
+        }
+    }
+
+    private long retryDelay(int failures) {
+        return Math.min(maxRetryDelay, retryDelay << Math.min(failures, 20));
+    }
+
+    private synchronized void apply(Set<Long> productIds) {
+        Set<Long> missing = new HashSet<>(productIds);
+        for (ProductIndexRow row : productRepository.findIndexRowsByIdIn(productIds)) {
+            missing.remove(row.getId());
+            for (ProductIndex index : indexes) {
+                index.upsert(row);
+            }
+            catalogVersion.productUpdated(row);
+        }
+        for (Long productId : missing) {
+            for (ProductIndex index : indexes) {
+                index.remove(productId);
+            }
+            catalogVersion.productRemoved(productId);
+        }
+        catalogVersion.catalogChanged();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+}
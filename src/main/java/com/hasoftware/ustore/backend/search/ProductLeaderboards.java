@@ -0,0 +1,382 @@
+package com.hasoftware.ustore.backend.search;
+
+import com.hasoftware.ustore.backend.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Best-selling and most-viewed active products, globally and per category (a product
+// also counts towards its parent category). Each scope keeps only its top entries in a
+// skip list, so a growing counter is an O(log n) offer and reads need no lock. Counters
+// come from product change events and flushed views, and are periodically reconciled
+// with the database.
+@Component
+public class ProductLeaderboards implements ProductIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductLeaderboards.class);
+
+    public static final long GLOBAL = 0;
+
+    public enum Metric {
+        SOLD, VIEWED
+    }
+
+    private static final long[] NO_SCOPES = new long[0];
+
+    private static final class Entry implements Comparable<Entry> {
+        private final long id;
+        private final long score;
+
+        private Entry(long id, long score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        // Highest score first, then lowest id
+        @Override
+        public int compareTo(Entry other) {
+            int byScore = Long.compare(other.score, score);
+            return byScore != 0 ? byScore : Long.compare(id, other.id);
+        }
+    }
+
+    // Scores of one metric and the top entries of every scope
+    private final class Board {
+        private final Map<Long, Long> scores = new HashMap<>();
+        private final Map<Long, ConcurrentSkipListSet<Entry>> tops = new ConcurrentHashMap<>();
+
+        private void set(long productId, long score, long[] oldScopes, long[] newScopes) {
+            Long previous = scores.put(productId, score);
+            for (long scope : oldScopes) {
+                ConcurrentSkipListSet<Entry> top = tops.get(scope);
+                boolean held = previous != null && top != null && top.remove(new Entry(productId, previous));
+                boolean stays = contains(newScopes, scope);
+                if (held && (!stays || score < previous)) {
+                    // It may no longer belong in the top, and an outsider may have to move up
+                    refill(scope);
+                } else if (stays) {
+                    offer(scope, new Entry(productId, score));
+                }
+            }
+            for (long scope : newScopes) {
+                if (!contains(oldScopes, scope)) {
+                    offer(scope, new Entry(productId, score));
+                }
+            }
+        }
+
+        private void remove(long productId, long[] scopes) {
+            Long previous = scores.remove(productId);
+            if (previous == null) {
+                return;
+            }
+            for (long scope : scopes) {
+                ConcurrentSkipListSet<Entry> top = tops.get(scope);
+                if (top != null && top.remove(new Entry(productId, previous))) {
+                    refill(scope);
+                }
+            }
+        }
+
+        private void offer(long scope, Entry entry) {
+            ConcurrentSkipListSet<Entry> top = tops.computeIfAbsent(scope, key -> new ConcurrentSkipListSet<>());
+            if (top.size() < capacity) {
+                top.add(entry);
+            } else if (entry.compareTo(top.last()) < 0) {
+                top.add(entry);
+                top.pollLast();
+            }
+        }
+
+        private void refill(long scope) {
+            Set<Long> members = membersByScope.get(scope);
+            if (members == null || members.isEmpty()) {
+                tops.remove(scope);
+                return;
+            }
+            ConcurrentSkipListSet<Entry> top = new ConcurrentSkipListSet<>();
+            for (Long member : members) {
+                Long score = scores.get(member);
+                if (score == null) {
+                    continue;
+                }
+                top.add(new Entry(member, score));
+                if (top.size() > capacity) {
+                    top.pollLast();
+                }
+            }
+            tops.put(scope, top);
+        }
+
+        private void clear() {
+            scores.clear();
+            tops.clear();
+        }
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.leaderboard.size:100}")
+    private int capacity;
+
+    private final Map<Metric, Board> boards = new EnumMap<>(Metric.class);
+
+    private final Map<Long, long[]> scopesById = new HashMap<>();
+
+    private final Map<Long, Set<Long>> membersByScope = new HashMap<>();
+
+    private volatile boolean ready = false;
+
+    // Products changed in memory while reconcile reads the database (null when it is not reading);
+    // their rows may be older than the counters, so that pass leaves them alone
+    private Set<Long> changedDuringReconcile;
+
+    private long rebuilds;
+
+    private Counter reconciledDrift;
+
+    @PostConstruct
+    public void init() {
+        for (Metric metric : Metric.values()) {
+            boards.put(metric, new Board());
+        }
+        reconciledDrift = Counter.builder("ustore.product.leaderboard.drift")
+                .description("Products whose leaderboard counters differed from the database on reconciliation")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void rebuild(List<ProductIndexRow> rows) {
+        scopesById.clear();
+        membersByScope.clear();
+        boards.values().forEach(Board::clear);
+        rebuilds++;
+        for (ProductIndexRow row : rows) {
+            if (Boolean.TRUE.equals(row.getIsActive())) {
+                apply(row.getId(), row.getCategoryId(), row.getCategoryParentId(), row.getSoldCount(),
+                        row.getViewCount());
+            }
+        }
+        ready = true;
+    }
+
+    @Override
+    public synchronized void upsert(ProductIndexRow row) {
+        changed(row.getId());
+        if (Boolean.TRUE.equals(row.getIsActive())) {
+            apply(row.getId(), row.getCategoryId(), row.getCategoryParentId(), row.getSoldCount(),
+                    row.getViewCount());
+        } else {
+            removeProduct(row.getId());
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long productId) {
+        changed(productId);
+        removeProduct(productId);
+    }
+
+    // Views that were just written to products.view_count
+    public synchronized void addViews(Map<Long, Long> deltas) {
+        Board views = boards.get(Metric.VIEWED);
+        deltas.forEach((productId, delta) -> {
+            changed(productId);
+            long[] scopes = scopesById.get(productId);
+            Long score = views.scores.get(productId);
+            if (scopes != null && score != null) {
+                views.set(productId, score + delta, scopes, scopes);
+            }
+        });
+    }
+
+    // Flash sale units that were just written to products.sold_count
+    public synchronized void addSales(Map<Long, Long> deltas) {
+        Board sales = boards.get(Metric.SOLD);
+        deltas.forEach((productId, delta) -> {
+            changed(productId);
+            long[] scopes = scopesById.get(productId);
+            Long score = sales.scores.get(productId);
+            if (scopes != null && score != null) {
+                sales.set(productId, score + delta, scopes, scopes);
+            }
+        });
+    }
+
+    // Ids of the top products for the metric in a category (null for all products), best first
+    public List<Long> top(Metric metric, Long categoryId, int limit) {
+        ConcurrentSkipListSet<Entry> top = boards.get(metric).tops.get(categoryId != null ? categoryId : GLOBAL);
+        if (top == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(Math.min(limit, capacity));
+        for (Entry entry : top) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add(entry.id);
+        }
+        return ids;
+    }
+
+    // Active products in a category (null for all), the total behind a leaderboard page
+    public synchronized int count(Long categoryId) {
+        Set<Long> members = membersByScope.get(categoryId != null ? categoryId : GLOBAL);
+        return members != null ? members.size() : 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Replaces in-memory counters that drifted from the database (missed events, flush failures, other nodes)
+    @Scheduled(fixedDelayString = "${product.leaderboard.reconcile-interval:600000}",
+            initialDelayString = "${product.leaderboard.reconcile-interval:600000}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        if (!ready) {
+            return;
+        }
+        long rebuildsBefore;
+        synchronized (this) {
+            changedDuringReconcile = new HashSet<>();
+            rebuildsBefore = rebuilds;
+        }
+        List<ProductCounterRow> rows;
+        try {
+            rows = productRepository.findActiveCounterRows();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                changedDuringReconcile = null;
+            }
+            throw e;
+        }
+        int drifted = 0;
+        synchronized (this) {
+            Set<Long> changed = changedDuringReconcile;
+            changedDuringReconcile = null;
+            if (rebuilds != rebuildsBefore) {
+                // A rebuild loaded newer rows than these
+                return;
+            }
+            Set<Long> stale = new HashSet<>(scopesById.keySet());
+            stale.removeAll(changed);
+            for (ProductCounterRow row : rows) {
+                stale.remove(row.getId());
+                if (changed.contains(row.getId())) {
+                    // The next pass checks it against a read that includes this change
+                    continue;
+                }
+                long sold = row.getSoldCount() != null ? row.getSoldCount() : 0;
+                long viewed = row.getViewCount() != null ? row.getViewCount() : 0;
+                long[] scopes = scopesById.get(row.getId());
+                if (scopes == null || !Arrays.equals(scopes, scopesOf(row.getCategoryId(), row.getCategoryParentId()))
+                        || sold != boards.get(Metric.SOLD).scores.get(row.getId())
+                        || viewed != boards.get(Metric.VIEWED).scores.get(row.getId())) {
+                    apply(row.getId(), row.getCategoryId(), row.getCategoryParentId(), row.getSoldCount(),
+                            row.getViewCount());
+                    drifted++;
+                }
+            }
+            for (Long productId : stale) {
+                removeProduct(productId);
+                drifted++;
+            }
+        }
+        if (drifted > 0) {
+            reconciledDrift.increment(drifted);
+            logger.info("Reconciled {} drifted products in the leaderboards", drifted);
+        }
+    }
+
+    private void changed(Long productId) {
+        if (changedDuringReconcile != null) {
+            changedDuringReconcile.add(productId);
+        }
+    }
+
+    private void apply(Long productId, Long categoryId, Long parentId, Integer soldCount, Integer viewCount) {
+        long[] oldScopes = scopesById.getOrDefault(productId, NO_SCOPES);
+        long[] newScopes = scopesOf(categoryId, parentId);
+        for (long scope : oldScopes) {
+            if (!contains(newScopes, scope)) {
+                removeMember(scope, productId);
+            }
+        }
+        for (long scope : newScopes) {
+            membersByScope.computeIfAbsent(scope, key -> new HashSet<>()).add(productId);
+        }
+        scopesById.put(productId, newScopes);
+
+        boards.get(Metric.SOLD).set(productId, soldCount != null ? soldCount : 0, oldScopes, newScopes);
+        boards.get(Metric.VIEWED).set(productId, viewCount != null ? viewCount : 0, oldScopes, newScopes);
+    }
+
+    private void removeProduct(Long productId) {
+        long[] scopes = scopesById.remove(productId);
+        if (scopes == null) {
+            return;
+        }
+        for (long scope : scopes) {
+            removeMember(scope, productId);
+        }
+        for (Board board : boards.values()) {
+            board.remove(productId, scopes);
+        }
+    }
+
+    private void removeMember(long scope, Long productId) {
+        Set<Long> members = membersByScope.get(scope);
+        if (members != null) {
+            members.remove(productId);
+            if (members.isEmpty()) {
+                membersByScope.remove(scope);
+            }
+        }
+    }
+
+    private static long[] scopesOf(Long categoryId, Long parentId) {
+        if (categoryId == null) {
+            return new long[] { GLOBAL };
+        }
+        if (parentId == null) {
+            return new long[] { GLOBAL, categoryId };
+        }
+        return new long[] { GLOBAL, categoryId, parentId };
+    }
+
+    private static boolean contains(long[] scopes, long scope) {
+        for (long candidate : scopes) {
+            if (candidate == scope) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,162 @@
+package com.hasoftware.ustore.backend.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Inverted index over name, brand, category and description of active products.
+// Queries are AND-ed term lookups ranked by a saturated tf * idf score.
+@Component
+public class ProductSearchIndex implements ProductIndex {
+
+    private static final float NAME_BOOST = 3.0f;
+    private static final float BRAND_BOOST = 2.0f;
+    private static final float CATEGORY_BOOST = 1.5f;
+    private static final float DESCRIPTION_BOOST = 1.0f;
+
+    // Term frequency saturation, as in BM25
+    private static final float TF_SATURATION = 1.2f;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (product id -> term weight in that product)
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+
+    // product id -> its terms, needed to remove a product from the postings
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+
+    @Override
+    public void rebuild(List<ProductIndexRow> rows) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentTerms.clear();
+            for (ProductIndexRow row : rows) {
+                if (Boolean.TRUE.equals(row.getIsActive())) {
+                    addDocument(row);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(ProductIndexRow row) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(row.getId());
+            if (Boolean.TRUE.equals(row.getIsActive())) {
+                addDocument(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns ids of products containing every query term, best match first
+    public List<Long> search(String query) {
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Float>> termPostings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Float> posting = postings.get(term);
+                if (posting == null) {
+                    return List.of();
+                }
+                termPostings.add(posting);
+            }
+
+            // Drive the intersection from the rarest term
+            termPostings.sort(Comparator.comparingInt(Map::size));
+            int documentCount = documentTerms.size();
+            float[] idf = new float[termPostings.size()];
+            for (int i = 0; i < idf.length; i++) {
+                idf[i] = (float) Math.log(1.0 + (double) documentCount / termPostings.get(i).size());
+            }
+
+            Map<Long, Float> scores = new HashMap<>();
+            candidates:
+            for (Map.Entry<Long, Float> entry : termPostings.get(0).entrySet()) {
+                float score = idf[0] * entry.getValue();
+                for (int i = 1; i < termPostings.size(); i++) {
+                    Float weight = termPostings.get(i).get(entry.getKey());
+                    if (weight == null) {
+                        continue candidates;
+                    }
+                    score += idf[i] * weight;
+                }
+                scores.put(entry.getKey(), score);
+            }
+
+            List<Long> ranked = new ArrayList<>(scores.keySet());
+            ranked.sort((a, b) -> {
+                int byScore = Float.compare(scores.get(b), scores.get(a));
+                return byScore != 0 ? byScore : Long.compare(a, b);
+            });
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addDocument(ProductIndexRow row) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, row.getName(), NAME_BOOST);
+        addField(weights, row.getBrand(), BRAND_BOOST);
+        addField(weights, row.getCategoryName(), CATEGORY_BOOST);
+        addField(weights, row.getDescription(), DESCRIPTION_BOOST);
+
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(row.getId(), entry.getValue());
+        }
+        documentTerms.put(row.getId(), weights.keySet());
+    }
+
+    private void addField(Map<String, Float> weights, String text, float boost) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : TextAnalyzer.tokenize(text)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        frequencies.forEach((term, tf) -> weights.merge(term, boost * tf / (tf + TF_SATURATION), Float::sum));
+    }
+
+    private void removeDocument(Long productId) {
+        Set<String> terms = documentTerms.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
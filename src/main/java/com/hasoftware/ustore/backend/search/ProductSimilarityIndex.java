@@ -0,0 +1,455 @@
+package com.hasoftware.ustore.backend.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Precomputed nearest neighbours of every active product. Products are encoded as
+// feature vectors (category path, brand, price band, material, color, size, rating)
+// and only compared with products sharing a root category or a brand, at most
+// max-candidates of them, nearest blocks first. The full table is computed in parallel
+// into a new table that replaces the old one only when complete, so reads are never held
+// up by a rebuild; a change recomputes the changed product's list and the lists that it
+// enters or leaves.
+@Component
+public class ProductSimilarityIndex implements ProductIndex {
+
+    private static final long NONE = -1;
+
+    private static final float CATEGORY_WEIGHT = 3.0f;
+    private static final float PARENT_CATEGORY_WEIGHT = 1.5f;
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float PRICE_WEIGHT = 2.0f;
+    private static final float MATERIAL_WEIGHT = 0.75f;
+    private static final float COLOR_WEIGHT = 0.5f;
+    private static final float SIZE_WEIGHT = 0.5f;
+    private static final float RATING_WEIGHT = 0.5f;
+
+    // Prices further apart than this ratio get no price similarity
+    private static final double PRICE_BAND = Math.log(2.0);
+
+    private static final double MAX_RATING = 5.0;
+
+    // Products per fork-join task when building the whole table
+    private static final int BATCH_SIZE = 256;
+
+    private static final long[] NO_IDS = new long[0];
+    private static final float[] NO_SCORES = new float[0];
+
+    private static final class Features {
+        private final long id;
+        private final long categoryId;
+        private final long rootCategoryId;
+        private final int brand;
+        private final double logPrice;
+        private final int material;
+        private final int color;
+        private final int size;
+        private final double rating;
+
+        private Features(long id, long categoryId, long rootCategoryId, int brand, double logPrice, int material,
+                int color, int size, double rating) {
+            this.id = id;
+            this.categoryId = categoryId;
+            this.rootCategoryId = rootCategoryId;
+            this.brand = brand;
+            this.logPrice = logPrice;
+            this.material = material;
+            this.color = color;
+            this.size = size;
+            this.rating = rating;
+        }
+
+        private boolean sameAs(Features other) {
+            return categoryId == other.categoryId && rootCategoryId == other.rootCategoryId
+                    && brand == other.brand && logPrice == other.logPrice && material == other.material
+                    && color == other.color && size == other.size && rating == other.rating;
+        }
+    }
+
+    // Neighbour ids with their scores, best first
+    private static final class Neighbors {
+        private final long[] ids;
+        private final float[] scores;
+
+        private Neighbors(long[] ids, float[] scores) {
+            this.ids = ids;
+            this.scores = scores;
+        }
+    }
+
+    @Value("${product.similarity.neighbors:20}")
+    private int maxNeighbors;
+
+    @Value("${product.similarity.max-candidates:2000}")
+    private int maxCandidates;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Replaced as a whole by a rebuild; changed in place by upsert and remove, under the write lock
+    private Table table = new Table();
+
+    @Override
+    public void rebuild(List<ProductIndexRow> rows) {
+        Table built = new Table();
+        List<Features> all = new ArrayList<>(rows.size());
+        for (ProductIndexRow row : rows) {
+            if (Boolean.TRUE.equals(row.getIsActive())) {
+                Features product = built.encode(row);
+                built.features.put(product.id, product);
+                built.addToBlocks(product);
+                all.add(product);
+            }
+        }
+
+        Neighbors[] computed = new Neighbors[all.size()];
+        ForkJoinPool.commonPool().invoke(new NeighborTask(built, all, computed, 0, all.size()));
+        for (int i = 0; i < computed.length; i++) {
+            built.setNeighbors(all.get(i).id, computed[i]);
+        }
+
+        lock.writeLock().lock();
+        try {
+            table = built;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(ProductIndexRow row) {
+        if (!Boolean.TRUE.equals(row.getIsActive())) {
+            remove(row.getId());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Table current = table;
+            Features previous = current.features.get(row.getId());
+            Features product = current.encode(row);
+            if (previous != null && previous.sameAs(product)) {
+                // Sales, views and stock changes do not move a product in feature space
+                return;
+            }
+            if (previous != null) {
+                current.removeFromBlocks(previous);
+            }
+            current.features.put(product.id, product);
+            current.addToBlocks(product);
+            current.setNeighbors(product.id, current.computeNeighbors(product));
+
+            // Lists that held the product may now rank it lower (or not at all)
+            Set<Long> holders = new HashSet<>(current.referencedBy.getOrDefault(product.id, Set.of()));
+            for (Long holder : holders) {
+                current.setNeighbors(holder, current.computeNeighbors(current.features.get(holder)));
+            }
+
+            // Lists of other candidates gain the product if it beats their weakest neighbour
+            current.forEachCandidate(product, candidate -> {
+                if (!holders.contains(candidate.id)) {
+                    current.offer(candidate.id, product.id, score(candidate, product));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Table current = table;
+            Features product = current.features.remove(productId);
+            if (product == null) {
+                return;
+            }
+            current.removeFromBlocks(product);
+            current.setNeighbors(productId, null);
+            Set<Long> holders = current.referencedBy.remove(productId);
+            if (holders != null) {
+                for (Long holder : holders) {
+                    current.setNeighbors(holder, current.computeNeighbors(current.features.get(holder)));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids of the most similar active products, best first; empty if the product is not indexed
+    public List<Long> getSimilar(Long productId) {
+        lock.readLock().lock();
+        try {
+            Neighbors list = table.neighbors.get(productId);
+            if (list == null) {
+                return List.of();
+            }
+            List<Long> ids = new ArrayList<>(list.ids.length);
+            for (long id : list.ids) {
+                ids.add(id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(Long productId) {
+        lock.readLock().lock();
+        try {
+            return table.features.containsKey(productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Computes neighbour lists for a range of products, splitting until the range is small
+    private static final class NeighborTask extends RecursiveAction {
+        private final Table table;
+        private final List<Features> products;
+        private final Neighbors[] results;
+        private final int from;
+        private final int to;
+
+        private NeighborTask(Table table, List<Features> products, Neighbors[] results, int from, int to) {
+            this.table = table;
+            this.products = products;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                for (int i = from; i < to; i++) {
+                    results[i] = table.computeNeighbors(products.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new NeighborTask(table, products, results, from, middle),
+                    new NeighborTask(table, products, results, middle, to));
+        }
+    }
+
+    // The features, neighbour lists and candidate blocks of one generation of the index
+    private final class Table {
+        private final Map<Long, Features> features = new HashMap<>();
+        private final Map<Long, Neighbors> neighbors = new HashMap<>();
+
+        // product id -> products whose neighbour list contains it
+        private final Map<Long, Set<Long>> referencedBy = new HashMap<>();
+
+        // Candidate blocks
+        private final Map<Long, Set<Features>> byCategory = new HashMap<>();
+        private final Map<Long, Set<Features>> byRootCategory = new HashMap<>();
+        private final Map<Integer, Set<Features>> byBrand = new HashMap<>();
+
+        // Dictionary for categorical string attributes
+        private final Map<String, Integer> ordinals = new HashMap<>();
+
+        // Top maxNeighbors candidates by score, kept sorted by insertion into small arrays
+        private Neighbors computeNeighbors(Features product) {
+            long[] ids = new long[maxNeighbors];
+            float[] scores = new float[maxNeighbors];
+            int[] count = { 0 };
+            forEachCandidate(product, candidate -> {
+                float score = score(product, candidate);
+                if (count[0] == maxNeighbors && !better(score, candidate.id, scores[count[0] - 1], ids[count[0] - 1])) {
+                    return;
+                }
+                int position = count[0] < maxNeighbors ? count[0]++ : count[0] - 1;
+                while (position > 0 && better(score, candidate.id, scores[position - 1], ids[position - 1])) {
+                    ids[position] = ids[position - 1];
+                    scores[position] = scores[position - 1];
+                    position--;
+                }
+                ids[position] = candidate.id;
+                scores[position] = score;
+            });
+            if (count[0] == 0) {
+                return new Neighbors(NO_IDS, NO_SCORES);
+            }
+            return new Neighbors(Arrays.copyOf(ids, count[0]), Arrays.copyOf(scores, count[0]));
+        }
+
+        // Inserts a candidate into an existing list if it ranks within the top maxNeighbors
+        private void offer(Long holderId, long candidateId, float score) {
+            Neighbors list = neighbors.get(holderId);
+            int count = list.ids.length;
+            if (count == maxNeighbors && !better(score, candidateId, list.scores[count - 1], list.ids[count - 1])) {
+                return;
+            }
+            int size = Math.min(count + 1, maxNeighbors);
+            long[] ids = new long[size];
+            float[] scores = new float[size];
+            int source = 0;
+            boolean inserted = false;
+            for (int target = 0; target < size; target++) {
+                if (!inserted && (source == count
+                        || better(score, candidateId, list.scores[source], list.ids[source]))) {
+                    ids[target] = candidateId;
+                    scores[target] = score;
+                    inserted = true;
+                } else {
+                    ids[target] = list.ids[source];
+                    scores[target] = list.scores[source];
+                    source++;
+                }
+            }
+            setNeighbors(holderId, new Neighbors(ids, scores));
+        }
+
+        // Replaces a neighbour list and keeps the reverse references in step
+        private void setNeighbors(Long productId, Neighbors list) {
+            Neighbors previous = list != null ? neighbors.put(productId, list) : neighbors.remove(productId);
+            if (previous != null) {
+                for (long id : previous.ids) {
+                    Set<Long> holders = referencedBy.get(id);
+                    if (holders != null) {
+                        holders.remove(productId);
+                        if (holders.isEmpty()) {
+                            referencedBy.remove(id);
+                        }
+                    }
+                }
+            }
+            if (list != null) {
+                for (long id : list.ids) {
+                    referencedBy.computeIfAbsent(id, key -> new HashSet<>()).add(productId);
+                }
+            }
+        }
+
+        // Products sharing the category, then the brand, then only the root category, up to
+        // maxCandidates. The blocks are walked in place; a product met in an earlier block is
+        // recognised by its features and skipped in the later ones.
+        private void forEachCandidate(Features product, Consumer<Features> action) {
+            int remaining = maxCandidates;
+            for (Features candidate : byCategory.getOrDefault(product.categoryId, Set.of())) {
+                if (candidate.id != product.id) {
+                    if (remaining-- == 0) {
+                        return;
+                    }
+                    action.accept(candidate);
+                }
+            }
+            for (Features candidate : byBrand.getOrDefault(product.brand, Set.of())) {
+                if (candidate.id != product.id && !sameCategory(product, candidate)) {
+                    if (remaining-- == 0) {
+                        return;
+                    }
+                    action.accept(candidate);
+                }
+            }
+            for (Features candidate : byRootCategory.getOrDefault(product.rootCategoryId, Set.of())) {
+                if (candidate.id != product.id && !sameCategory(product, candidate)
+                        && !sameBrand(product, candidate)) {
+                    if (remaining-- == 0) {
+                        return;
+                    }
+                    action.accept(candidate);
+                }
+            }
+        }
+
+        private Features encode(ProductIndexRow row) {
+            long categoryId = row.getCategoryId() != null ? row.getCategoryId() : NONE;
+            long rootCategoryId = row.getCategoryParentId() != null ? row.getCategoryParentId() : categoryId;
+            double logPrice = row.getPrice() != null && row.getPrice().signum() > 0
+                    ? Math.log(row.getPrice().doubleValue())
+                    : Double.NaN;
+            double rating = row.getRating() != null ? row.getRating() : 0.0;
+            return new Features(row.getId(), categoryId, rootCategoryId, ordinal("brand", row.getBrand()), logPrice,
+                    ordinal("material", row.getMaterial()), ordinal("color", row.getColor()),
+                    ordinal("size", row.getSize()), rating);
+        }
+
+        private int ordinal(String attribute, String value) {
+            if (value == null || value.isBlank()) {
+                return -1;
+            }
+            return ordinals.computeIfAbsent(attribute + ":" + TextAnalyzer.fold(value.trim()),
+                    key -> ordinals.size());
+        }
+
+        private void addToBlocks(Features product) {
+            if (product.categoryId != NONE) {
+                byCategory.computeIfAbsent(product.categoryId, key -> new HashSet<>()).add(product);
+                byRootCategory.computeIfAbsent(product.rootCategoryId, key -> new HashSet<>()).add(product);
+            }
+            if (product.brand >= 0) {
+                byBrand.computeIfAbsent(product.brand, key -> new HashSet<>()).add(product);
+            }
+        }
+
+        private void removeFromBlocks(Features product) {
+            removeFromBlock(byCategory, product.categoryId, product);
+            removeFromBlock(byRootCategory, product.rootCategoryId, product);
+            removeFromBlock(byBrand, product.brand, product);
+        }
+    }
+
+    private static boolean better(float score, long id, float otherScore, long otherId) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    private static boolean sameCategory(Features a, Features b) {
+        return a.categoryId != NONE && a.categoryId == b.categoryId;
+    }
+
+    private static boolean sameBrand(Features a, Features b) {
+        return a.brand >= 0 && a.brand == b.brand;
+    }
+
+    private static float score(Features a, Features b) {
+        float score = 0;
+        if (a.categoryId != NONE && a.categoryId == b.categoryId) {
+            score += CATEGORY_WEIGHT;
+        } else if (a.rootCategoryId != NONE && a.rootCategoryId == b.rootCategoryId) {
+            score += PARENT_CATEGORY_WEIGHT;
+        }
+        if (a.brand >= 0 && a.brand == b.brand) {
+            score += BRAND_WEIGHT;
+        }
+        if (!Double.isNaN(a.logPrice) && !Double.isNaN(b.logPrice)) {
+            score += PRICE_WEIGHT * (float) Math.max(0.0, 1.0 - Math.abs(a.logPrice - b.logPrice) / PRICE_BAND);
+        }
+        if (a.material >= 0 && a.material == b.material) {
+            score += MATERIAL_WEIGHT;
+        }
+        if (a.color >= 0 && a.color == b.color) {
+            score += COLOR_WEIGHT;
+        }
+        if (a.size >= 0 && a.size == b.size) {
+            score += SIZE_WEIGHT;
+        }
+        score += RATING_WEIGHT * (float) (1.0 - Math.abs(a.rating - b.rating) / MAX_RATING);
+        return score;
+    }
+
+    private static <K> void removeFromBlock(Map<K, Set<Features>> blocks, K key, Features product) {
+        Set<Features> block = blocks.get(key);
+        if (block != null) {
+            block.remove(product);
+            if (block.isEmpty()) {
+                blocks.remove(key);
+            }
+        }
+    }
+}
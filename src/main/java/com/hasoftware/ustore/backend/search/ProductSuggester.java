@@ -0,0 +1,233 @@
+package com.hasoftware.ustore.backend.search;
+
+import com.hasoftware.ustore.backend.dto.Suggestion;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Autocomplete over product names, brands and category names of active products.
+// Products are weighted by sales and views; brands and categories by the sum of their products.
+@Component
+public class ProductSuggester implements ProductIndex {
+
+    public static final String TYPE_PRODUCT = "PRODUCT";
+    public static final String TYPE_BRAND = "BRAND";
+    public static final String TYPE_CATEGORY = "CATEGORY";
+
+    private static final long SOLD_WEIGHT = 10;
+
+    // A name is also reachable from its later words ("pro max" finds "iPhone 15 Pro Max")
+    private static final int MAX_WORD_SUFFIXES = 5;
+
+    private static final class ProductEntry {
+        private final Suggestion suggestion;
+        private final List<String> keys;
+        private final String brandKey;
+        private final String categoryKey;
+
+        private ProductEntry(Suggestion suggestion, List<String> keys, String brandKey, String categoryKey) {
+            this.suggestion = suggestion;
+            this.keys = keys;
+            this.brandKey = brandKey;
+            this.categoryKey = categoryKey;
+        }
+    }
+
+    // Brand or category suggestion whose weight is the sum of its products
+    private static final class Group {
+        private Suggestion suggestion;
+        private int products;
+    }
+
+    private final SuggestionTrie trie = new SuggestionTrie();
+
+    private final Map<Long, ProductEntry> products = new HashMap<>();
+
+    private final Map<String, Group> brands = new HashMap<>();
+
+    private final Map<String, Group> categories = new HashMap<>();
+
+    @Override
+    public synchronized void rebuild(List<ProductIndexRow> rows) {
+        trie.clear();
+        products.clear();
+        brands.clear();
+        categories.clear();
+        for (ProductIndexRow row : rows) {
+            if (Boolean.TRUE.equals(row.getIsActive())) {
+                addProduct(row);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void upsert(ProductIndexRow row) {
+        removeProduct(row.getId());
+        if (Boolean.TRUE.equals(row.getIsActive())) {
+            addProduct(row);
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long productId) {
+        removeProduct(productId);
+    }
+
+    // Views that were just written to products.view_count
+    public synchronized void addViews(Map<Long, Long> deltas) {
+        reweight(deltas, 1);
+    }
+
+    // Flash sale units that were just written to products.sold_count
+    public synchronized void addSales(Map<Long, Long> deltas) {
+        reweight(deltas, SOLD_WEIGHT);
+    }
+
+    private void reweight(Map<Long, Long> deltas, long factor) {
+        deltas.forEach((productId, count) -> {
+            ProductEntry entry = products.get(productId);
+            if (entry == null) {
+                return;
+            }
+            long delta = count * factor;
+            Suggestion previous = entry.suggestion;
+            Suggestion suggestion = new Suggestion(previous.getText(), previous.getType(), previous.getId(),
+                    previous.getWeight() + delta);
+            for (String key : entry.keys) {
+                trie.remove(key, previous);
+                trie.insert(key, suggestion);
+            }
+            reweightGroup(brands, entry.brandKey, delta);
+            reweightGroup(categories, entry.categoryKey, delta);
+            products.put(productId, new ProductEntry(suggestion, entry.keys, entry.brandKey, entry.categoryKey));
+        });
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        // The same text can come from several products (or a product and its brand)
+        List<Suggestion> results = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Suggestion suggestion : trie.find(key)) {
+            if (results.size() >= limit) {
+                break;
+            }
+            if (seen.add(suggestion.getType() + ":" + TextAnalyzer.fold(suggestion.getText()))) {
+                results.add(suggestion);
+            }
+        }
+        return results;
+    }
+
+    private void addProduct(ProductIndexRow row) {
+        String name = normalize(row.getName());
+        if (name.isEmpty()) {
+            return;
+        }
+
+        long weight = productWeight(row);
+        Suggestion suggestion = new Suggestion(row.getName(), TYPE_PRODUCT, row.getId(), weight);
+        List<String> keys = wordSuffixes(name);
+        for (String key : keys) {
+            trie.insert(key, suggestion);
+        }
+
+        String brandKey = normalize(row.getBrand());
+        addToGroup(brands, brandKey, row.getBrand(), TYPE_BRAND, null, weight);
+        String categoryKey = normalize(row.getCategoryName());
+        addToGroup(categories, categoryKey, row.getCategoryName(), TYPE_CATEGORY, row.getCategoryId(), weight);
+
+        products.put(row.getId(), new ProductEntry(suggestion, keys, brandKey, categoryKey));
+    }
+
+    private void removeProduct(Long productId) {
+        ProductEntry entry = products.remove(productId);
+        if (entry == null) {
+            return;
+        }
+        for (String key : entry.keys) {
+            trie.remove(key, entry.suggestion);
+        }
+        removeFromGroup(brands, entry.brandKey, entry.suggestion.getWeight());
+        removeFromGroup(categories, entry.categoryKey, entry.suggestion.getWeight());
+    }
+
+    private void addToGroup(Map<String, Group> groups, String key, String text, String type, Long id, long weight) {
+        if (key.isEmpty()) {
+            return;
+        }
+        Group group = groups.computeIfAbsent(key, k -> new Group());
+        long total = weight;
+        if (group.suggestion != null) {
+            trie.remove(key, group.suggestion);
+            total += group.suggestion.getWeight();
+            text = group.suggestion.getText();
+        }
+        group.products++;
+        group.suggestion = new Suggestion(text, type, id, total);
+        trie.insert(key, group.suggestion);
+    }
+
+    private void removeFromGroup(Map<String, Group> groups, String key, long weight) {
+        Group group = groups.get(key);
+        if (group == null) {
+            return;
+        }
+        trie.remove(key, group.suggestion);
+        group.products--;
+        if (group.products == 0) {
+            groups.remove(key);
+            return;
+        }
+        Suggestion previous = group.suggestion;
+        group.suggestion = new Suggestion(previous.getText(), previous.getType(), previous.getId(),
+                previous.getWeight() - weight);
+        trie.insert(key, group.suggestion);
+    }
+
+    private void reweightGroup(Map<String, Group> groups, String key, long delta) {
+        Group group = groups.get(key);
+        if (group == null) {
+            return;
+        }
+        trie.remove(key, group.suggestion);
+        Suggestion previous = group.suggestion;
+        group.suggestion = new Suggestion(previous.getText(), previous.getType(), previous.getId(),
+                previous.getWeight() + delta);
+        trie.insert(key, group.suggestion);
+    }
+
+    private static long productWeight(ProductIndexRow row) {
+        long sold = row.getSoldCount() != null ? row.getSoldCount() : 0;
+        long views = row.getViewCount() != null ? row.getViewCount() : 0;
+        return sold * SOLD_WEIGHT + views + 1;
+    }
+
+    private static List<String> wordSuffixes(String key) {
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        int from = 0;
+        while (keys.size() < MAX_WORD_SUFFIXES) {
+            int space = key.indexOf(' ', from);
+            if (space < 0) {
+                break;
+            }
+            from = space + 1;
+            keys.add(key.substring(from));
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", TextAnalyzer.tokenize(text));
+    }
+}
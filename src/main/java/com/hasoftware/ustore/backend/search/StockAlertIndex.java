@@ -0,0 +1,190 @@
+package com.hasoftware.ustore.backend.search;
+
+import com.hasoftware.ustore.backend.dto.StockTransition;
+import com.hasoftware.ustore.backend.event.StockLevelChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Active products that are low on stock or out of it. stock_quantity <= min_stock_level
+// compares two columns and cannot use an index, so instead of scanning products on every
+// request the membership is updated from each change; low stock is ordered by quantity,
+// most urgent first, and out of stock by id. Moves between levels are published.
+@Component
+public class StockAlertIndex implements ProductIndex {
+
+    public enum Level {
+        IN_STOCK, LOW_STOCK, OUT_OF_STOCK
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final int stockQuantity;
+        private final Level level;
+
+        private Entry(long id, int stockQuantity, Level level) {
+            this.id = id;
+            this.stockQuantity = stockQuantity;
+            this.level = level;
+        }
+    }
+
+    private static final Comparator<Entry> LOW_STOCK_ORDER = Comparator
+            .<Entry>comparingInt(entry -> entry.stockQuantity)
+            .thenComparingLong(entry -> entry.id);
+
+    private static final Comparator<Entry> OUT_OF_STOCK_ORDER = Comparator.comparingLong(entry -> entry.id);
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Every active product, so that leaving a level is noticed as well as entering one
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final NavigableSet<Entry> lowStock = new TreeSet<>(LOW_STOCK_ORDER);
+    private final NavigableSet<Entry> outOfStock = new TreeSet<>(OUT_OF_STOCK_ORDER);
+
+    private boolean loaded;
+
+    @Override
+    public void rebuild(List<ProductIndexRow> rows) {
+        List<StockTransition> transitions = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            Map<Long, Entry> previous = new HashMap<>(entries);
+            entries.clear();
+            lowStock.clear();
+            outOfStock.clear();
+            for (ProductIndexRow row : rows) {
+                Entry before = previous.remove(row.getId());
+                Entry after = put(row);
+                if (loaded) {
+                    addTransition(transitions, row, before, after);
+                }
+            }
+            if (loaded) {
+                previous.values().stream()
+                        .filter(before -> before.level != Level.IN_STOCK)
+                        .forEach(before -> transitions.add(
+                                new StockTransition(before.id, null, null, null, null, before.level, null)));
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publish(transitions);
+    }
+
+    @Override
+    public void upsert(ProductIndexRow row) {
+        List<StockTransition> transitions = new ArrayList<>(1);
+        lock.writeLock().lock();
+        try {
+            Entry before = take(row.getId());
+            addTransition(transitions, row, before, put(row));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publish(transitions);
+    }
+
+    @Override
+    public void remove(Long productId) {
+        Entry before;
+        lock.writeLock().lock();
+        try {
+            before = take(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (before != null && before.level != Level.IN_STOCK) {
+            publish(List.of(new StockTransition(productId, null, null, null, null, before.level, null)));
+        }
+    }
+
+    public List<Long> getProductIds(Level level, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> members = level == Level.LOW_STOCK ? lowStock : outOfStock;
+            List<Long> ids = new ArrayList<>(Math.min(limit, members.size()));
+            long skipped = 0;
+            for (Entry entry : members) {
+                if (ids.size() == limit) {
+                    break;
+                }
+                if (skipped++ >= offset) {
+                    ids.add(entry.id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int count(Level level) {
+        lock.readLock().lock();
+        try {
+            return level == Level.LOW_STOCK ? lowStock.size() : outOfStock.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Inactive products are not tracked; returns the entry of an active one
+    private Entry put(ProductIndexRow row) {
+        if (!Boolean.TRUE.equals(row.getIsActive())) {
+            return null;
+        }
+        int stock = row.getStockQuantity() != null ? row.getStockQuantity() : 0;
+        int minimum = row.getMinStockLevel() != null ? row.getMinStockLevel() : 0;
+        Level level = stock <= 0 ? Level.OUT_OF_STOCK : stock <= minimum ? Level.LOW_STOCK : Level.IN_STOCK;
+        Entry entry = new Entry(row.getId(), stock, level);
+        entries.put(entry.id, entry);
+        if (level == Level.LOW_STOCK) {
+            lowStock.add(entry);
+        } else if (level == Level.OUT_OF_STOCK) {
+            outOfStock.add(entry);
+        }
+        return entry;
+    }
+
+    private Entry take(Long productId) {
+        Entry entry = entries.remove(productId);
+        if (entry != null) {
+            lowStock.remove(entry);
+            outOfStock.remove(entry);
+        }
+        return entry;
+    }
+
+    // Only moves into or out of a level count; a product that merely stays in stock does not
+    private static void addTransition(List<StockTransition> transitions, ProductIndexRow row, Entry before,
+            Entry after) {
+        Level previous = before != null ? before.level : null;
+        Level current = after != null ? after.level : null;
+        if (previous == current || (previous == null && current == Level.IN_STOCK)
+                || (previous == Level.IN_STOCK && current == null)) {
+            return;
+        }
+        transitions.add(new StockTransition(row.getId(), row.getName(), row.getSku(), row.getStockQuantity(),
+                row.getMinStockLevel(), previous, current));
+    }
+
+    private void publish(List<StockTransition> transitions) {
+        if (!transitions.isEmpty()) {
+            eventPublisher.publishEvent(new StockLevelChangedEvent(transitions));
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.hasoftware.ustore.backend.search;
+
+import com.hasoftware.ustore.backend.dto.Suggestion;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Radix tree from normalized keys to suggestions. Every node caches the best
+// MAX_RESULTS suggestions of its subtree, so a lookup is a walk down the prefix
+// with no subtree traversal. The caches are refreshed on the path of each write.
+public class SuggestionTrie {
+
+    public static final int MAX_RESULTS = 10;
+
+    private static final Comparator<Suggestion> BY_WEIGHT = Comparator
+            .comparing(Suggestion::getWeight, Comparator.reverseOrder())
+            .thenComparing(Suggestion::getText);
+
+    private static final class Node {
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Suggestion> values = new ArrayList<>(1);
+        private List<Suggestion> top = List.of();
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root = new Node("");
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root = new Node("");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void insert(String key, Suggestion suggestion) {
+        if (key.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            path.push(node);
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.children.get(key.charAt(i));
+                if (child == null) {
+                    child = new Node(key.substring(i));
+                    node.children.put(key.charAt(i), child);
+                    i = key.length();
+                } else {
+                    int common = commonPrefixLength(child.label, key, i);
+                    if (common < child.label.length()) {
+                        // Split the edge so the key ends on (or branches off) a node
+                        Node middle = new Node(child.label.substring(0, common));
+                        child.label = child.label.substring(common);
+                        middle.children.put(child.label.charAt(0), child);
+                        node.children.put(middle.label.charAt(0), middle);
+                        child = middle;
+                    }
+                    i += common;
+                }
+                node = child;
+                path.push(node);
+            }
+            node.values.add(suggestion);
+            refreshTop(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Removes the given suggestion instance stored under key
+    public void remove(String key, Suggestion suggestion) {
+        if (key.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            path.push(node);
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.children.get(key.charAt(i));
+                if (child == null || !key.startsWith(child.label, i)) {
+                    return;
+                }
+                i += child.label.length();
+                node = child;
+                path.push(node);
+            }
+            if (!node.values.removeIf(value -> value == suggestion)) {
+                return;
+            }
+
+            // Drop nodes left with nothing under them, and merge a valueless node into its only child,
+            // so removed keys leave no empty chains behind
+            node = path.pop();
+            while (node != root && node.values.isEmpty() && node.children.size() <= 1) {
+                Node parent = path.peek();
+                if (node.children.isEmpty()) {
+                    parent.children.remove(node.label.charAt(0));
+                    node = path.pop();
+                } else {
+                    // The child's subtree is unchanged, so its cached results still hold
+                    Node only = node.children.values().iterator().next();
+                    only.label = node.label + only.label;
+                    parent.children.put(only.label.charAt(0), only);
+                    node = null;
+                    break;
+                }
+            }
+            if (node != null) {
+                path.push(node);
+            }
+            refreshTop(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Best suggestions whose key starts with prefix
+    public List<Suggestion> find(String prefix) {
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < prefix.length()) {
+                Node child = node.children.get(prefix.charAt(i));
+                if (child == null) {
+                    return List.of();
+                }
+                int remaining = prefix.length() - i;
+                if (remaining <= child.label.length()) {
+                    return child.label.startsWith(prefix.substring(i)) ? child.top : List.of();
+                }
+                if (!prefix.startsWith(child.label, i)) {
+                    return List.of();
+                }
+                i += child.label.length();
+                node = child;
+            }
+            return node.top;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Recomputes cached results bottom-up along the path of a write
+    private void refreshTop(Deque<Node> path) {
+        for (Node node : path) {
+            List<Suggestion> candidates = new ArrayList<>(node.values);
+            for (Node child : node.children.values()) {
+                candidates.addAll(child.top);
+            }
+            Set<Suggestion> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<Suggestion> top = new ArrayList<>(Math.min(candidates.size(), MAX_RESULTS));
+            candidates.sort(BY_WEIGHT);
+            for (Suggestion candidate : candidates) {
+                if (top.size() == MAX_RESULTS) {
+                    break;
+                }
+                if (seen.add(candidate)) {
+                    top.add(candidate);
+                }
+            }
+            node.top = Collections.unmodifiableList(top);
+        }
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+}
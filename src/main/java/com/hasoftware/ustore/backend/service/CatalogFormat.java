@@ -0,0 +1,34 @@
+package com.hasoftware.ustore.backend.service;
+
+import org.springframework.http.MediaType;
+
+// File formats of catalog export and bulk import, one product per line or record
+public enum CatalogFormat {
+    NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+    CSV("csv", MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+    private final String extension;
+    private final MediaType mediaType;
+
+    CatalogFormat(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public static CatalogFormat of(String name) {
+        for (CatalogFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new RuntimeException("Unsupported catalog format: " + name);
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+}
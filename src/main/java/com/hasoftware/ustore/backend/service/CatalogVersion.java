@@ -0,0 +1,120 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.hasoftware.ustore.backend.dto.ProductDetail;
+import com.hasoftware.ustore.backend.search.ProductIndexRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Validators for conditional GETs on the catalog, answered without loading the body.
+// A product's tag comes from its updatedAt, which ProductIndexer keeps in memory; list
+// tags come from a generation that is bumped only after every index has applied a
+// committed change. Flushed view and sale counters are left out, except for the rankings
+// they reorder.
+@Component
+public class CatalogVersion {
+
+    // Generations restart at zero, so tags also carry the start time of this node
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Long, Long> productVersions = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong categoryGeneration = new AtomicLong();
+
+    private final AtomicLong counterGeneration = new AtomicLong();
+
+    private volatile long lastModified = System.currentTimeMillis();
+
+    private volatile long categoriesModified = 0;
+
+    @Autowired
+    private ProductDetailCache productDetailCache;
+
+    public void productsLoaded(List<ProductIndexRow> rows) {
+        productVersions.clear();
+        rows.forEach(this::productUpdated);
+        catalogChanged();
+    }
+
+    public void productUpdated(ProductIndexRow row) {
+        if (row.getUpdatedAt() != null) {
+            productVersions.put(row.getId(), toMillis(row.getUpdatedAt()));
+        } else {
+            productVersions.remove(row.getId());
+        }
+    }
+
+    public void productRemoved(Long productId) {
+        productVersions.remove(productId);
+    }
+
+    public void catalogChanged() {
+        lastModified = System.currentTimeMillis();
+        generation.incrementAndGet();
+    }
+
+    public void categoriesChanged() {
+        // Product details embed the category name, drop them before their new tags are handed out
+        productDetailCache.invalidateAll();
+        categoriesModified = System.currentTimeMillis();
+        categoryGeneration.incrementAndGet();
+        catalogChanged();
+    }
+
+    public void countersFlushed() {
+        counterGeneration.incrementAndGet();
+    }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    // Sets ETag and Last-Modified; true when the client's copy of the list is current (304)
+    public boolean checkNotModified(WebRequest request) {
+        return request.checkNotModified("\"" + epoch + "-" + generation.get() + "\"", lastModified);
+    }
+
+    // Flushed views and sales reorder rankings without a catalog change, so only the tag can validate them
+    public boolean checkNotModifiedWithCounters(WebRequest request) {
+        return request.checkNotModified("\"" + epoch + "-" + generation.get() + "." + counterGeneration.get() + "\"");
+    }
+
+    // Unknown products (not indexed yet) are never reported as not modified
+    public boolean checkProductNotModified(WebRequest request, Long productId) {
+        Long version = productVersions.get(productId);
+        return version != null && request.checkNotModified(productTag(productId, version, categoryGeneration.get()),
+                Math.max(version, categoriesModified));
+    }
+
+    // Read before loading a product, so a category change in between yields an older tag, never a newer one
+    public long getCategoryGeneration() {
+        return categoryGeneration.get();
+    }
+
+    // Validators of a product detail that was loaded after reading the given category generation
+    public HttpHeaders productHeaders(ProductDetail detail, long categories) {
+        long version = detail.getUpdatedAt() != null ? toMillis(detail.getUpdatedAt()) : 0;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(productTag(detail.getId(), version, categories));
+        headers.setLastModified(Math.max(version, categoriesModified));
+        return headers;
+    }
+
+    private String productTag(Long productId, long version, long categories) {
+        return "\"p" + productId + "-" + version + "-" + epoch + "." + categories + "\"";
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
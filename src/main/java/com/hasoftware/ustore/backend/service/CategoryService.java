@@ -1,8 +1,10 @@
 package com.hasoftware.ustore.backend.service;
 
 import com.hasoftware.ustore.backend.entity.Category;
+import com.hasoftware.ustore.backend.event.CategoryChangedEvent;
 import com.hasoftware.ustore.backend.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +17,9 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public Category createCategory(Category category) {
         // Check if name already exists
         if (categoryRepository.existsByName(category.getName())) {
@@ -26,7 +31,9 @@ public class CategoryService {
             throw new RuntimeException("Category slug already exists!");
         }
 
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getId()));
+        return savedCategory;
     }
 
     public Category updateCategory(Long categoryId, Category categoryDetails) {
@@ -75,7 +82,9 @@ public class CategoryService {
             category.setMetaDescription(categoryDetails.getMetaDescription());
         }
 
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
+        return savedCategory;
     }
 
     public Category getCategoryById(Long categoryId) {
@@ -112,6 +121,7 @@ public class CategoryService {
                 .orElseThrow(() -> new RuntimeException("Category not found"));
         category.setIsActive(false);
         categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
     }
 
     public void activateCategory(Long categoryId) {
@@ -119,6 +129,7 @@ public class CategoryService {
                 .orElseThrow(() -> new RuntimeException("Category not found"));
         category.setIsActive(true);
         categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
     }
 
     public void deleteCategory(Long categoryId) {
@@ -126,6 +137,7 @@ public class CategoryService {
             throw new RuntimeException("Category not found");
         }
         categoryRepository.deleteById(categoryId);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
     }
 
     public boolean existsByName(String name) {
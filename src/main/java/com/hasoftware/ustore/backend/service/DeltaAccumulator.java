@@ -0,0 +1,58 @@
+package com.hasoftware.ustore.backend.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Striped per-key counters that collect deltas in memory until they are drained
+// and written to the database in one batch.
+public class DeltaAccumulator<K> {
+
+    // Entries are kept after draining so writers never race against removal;
+    // the map is bounded by the number of distinct keys (e.g. products).
+    private final ConcurrentHashMap<K, LongAdder> deltas = new ConcurrentHashMap<>();
+
+    public void add(K key, long delta) {
+        deltas.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+    }
+
+    public void addAll(Map<K, Long> drained) {
+        drained.forEach(this::add);
+    }
+
+    // Atomically takes the pending delta of every key, leaving zero behind
+    public Map<K, Long> drain() {
+        Map<K, Long> drained = new HashMap<>();
+        deltas.forEach((key, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                drained.put(key, delta);
+            }
+        });
+        return drained;
+    }
+
+    public long pending(K key) {
+        LongAdder adder = deltas.get(key);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    public long pendingTotal() {
+        long total = 0;
+        for (LongAdder adder : deltas.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    public long pendingKeys() {
+        long keys = 0;
+        for (LongAdder adder : deltas.values()) {
+            if (adder.sum() != 0) {
+                keys++;
+            }
+        }
+        return keys;
+    }
+}
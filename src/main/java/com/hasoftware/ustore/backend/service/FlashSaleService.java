@@ -0,0 +1,464 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.hasoftware.ustore.backend.dto.FlashPurchaseResult;
+import com.hasoftware.ustore.backend.dto.FlashSaleRequest;
+import com.hasoftware.ustore.backend.dto.FlashSaleView;
+import com.hasoftware.ustore.backend.entity.FlashSale;
+import com.hasoftware.ustore.backend.entity.FlashSale.Status;
+import com.hasoftware.ustore.backend.event.ProductChangedEvent;
+import com.hasoftware.ustore.backend.repository.FlashSaleRepository;
+import com.hasoftware.ustore.backend.repository.ProductRepository;
+import com.hasoftware.ustore.backend.search.ProductLeaderboards;
+import com.hasoftware.ustore.backend.search.ProductSuggester;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Flash sales admit purchases against striped in-memory counters, without touching the
+// products row that every buyer would otherwise queue on. Starting a sale moves its
+// units out of stock_quantity; admitted purchases are written in batches, on a thread of
+// their own, that raise flash_sales.sold and products.sold_count together. A buyer is
+// confirmed only once the batch holding its purchase has committed (a failed batch gives
+// its units back and fails its buyers), and waits for that at most confirm-timeout; a
+// purchase no batch has picked up by then is withdrawn and its units go back on sale. Each
+// written purchase leaves a flash_sale_purchases row for its buyer, and a buyer may hold at
+// most max-per-user units of a sale across all their purchases.
+// Ending a sale returns allocated - sold. After a crash the running
+// sales are reloaded from those columns, so a confirmed unit is never sold again and
+// stock is never lost. The counters are per node, so a sale must be served by a single instance.
+@Service
+public class FlashSaleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlashSaleService.class);
+
+    private static final String SALE_SOLD_SQL = "UPDATE flash_sales SET sold = sold + ? WHERE id = ?";
+
+    // updated_at = updated_at: like flushed views, sold units are a counter, not a product modification
+    private static final String PURCHASE_SQL = "INSERT INTO flash_sale_purchases " +
+            "(flash_sale_id, user_id, quantity, created_at) VALUES (?, ?, ?, ?)";
+
+    private static final String PRODUCT_SOLD_SQL = "UPDATE products SET sold_count = sold_count + ?, " +
+            "updated_at = updated_at WHERE id = ?";
+
+    private static final class LiveSale {
+        private final Long id;
+        private final Long productId;
+        private final int allocated;
+        private final LocalDateTime endsAt;
+        private final long endsAtMillis;
+        private final StripedStock stock;
+        // Purchases between their closed check and their pending write; ending waits for them
+        private final LongAdder inFlight = new LongAdder();
+        // Units each buyer holds, written or still waiting for their write
+        private final Map<Long, AtomicInteger> boughtByUser = new ConcurrentHashMap<>();
+        private volatile boolean closed;
+
+        private LiveSale(FlashSale sale, int stripes) {
+            this.id = sale.getId();
+            this.productId = sale.getProductId();
+            this.allocated = sale.getAllocated();
+            this.endsAt = sale.getEndsAt();
+            this.endsAtMillis = sale.getEndsAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            this.stock = new StripedStock(stripes, sale.getAllocated() - sale.getSold());
+        }
+    }
+
+    // An admitted purchase waiting for its write. Either the flush claims it or its buyer
+    // withdraws it after waiting too long; whichever wins decides who gives the units back.
+    private static final class PendingPurchase {
+        private static final int PENDING = 0;
+        private static final int CLAIMED = 1;
+        private static final int WITHDRAWN = 2;
+
+        private final LiveSale sale;
+        private final Long userId;
+        private final int quantity;
+        private final Timestamp admittedAt = new Timestamp(System.currentTimeMillis());
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        private PendingPurchase(LiveSale sale, Long userId, int quantity) {
+            this.sale = sale;
+            this.userId = userId;
+            this.quantity = quantity;
+        }
+
+        // The units are back on sale and no longer count against the buyer
+        private void giveBack() {
+            sale.stock.put(quantity);
+            sale.boughtByUser.get(userId).addAndGet(-quantity);
+        }
+    }
+
+    private final Map<Long, LiveSale> liveSales = new ConcurrentHashMap<>();
+
+    private final Queue<PendingPurchase> pendingPurchases = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder pendingUnits = new LongAdder();
+
+    private volatile boolean stopped;
+
+    @Autowired
+    private FlashSaleRepository flashSaleRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductLeaderboards productLeaderboards;
+
+    @Autowired
+    private ProductSuggester productSuggester;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("flashSaleExecutor")
+    private ThreadPoolTaskExecutor flashSaleExecutor;
+
+    @Value("${flash-sale.stripes:16}")
+    private int stripes;
+
+    @Value("${flash-sale.max-per-purchase:5}")
+    private int maxPerPurchase;
+
+    @Value("${flash-sale.max-per-user:10}")
+    private int maxPerUser;
+
+    @Value("${flash-sale.default-duration-minutes:60}")
+    private int defaultDurationMinutes;
+
+    @Value("${flash-sale.flush-interval:50}")
+    private long flushInterval;
+
+    @Value("${flash-sale.confirm-timeout:2000}")
+    private long confirmTimeout;
+
+    private Counter acceptedPurchases;
+
+    private Counter rejectedPurchases;
+
+    private Counter failedPurchases;
+
+    private Counter failedFlushes;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("ustore.flash-sale.sold.pending", this, service -> service.pendingUnits.sum())
+                .description("Flash sale units admitted in memory and not yet written to the database")
+                .register(meterRegistry);
+        acceptedPurchases = Counter.builder("ustore.flash-sale.purchases").tag("result", "accepted")
+                .register(meterRegistry);
+        rejectedPurchases = Counter.builder("ustore.flash-sale.purchases").tag("result", "rejected")
+                .register(meterRegistry);
+        failedPurchases = Counter.builder("ustore.flash-sale.purchases").tag("result", "failed")
+                .register(meterRegistry);
+        failedFlushes = Counter.builder("ustore.flash-sale.flush.failures")
+                .register(meterRegistry);
+    }
+
+    // Reload sales that were running when the node stopped; end those that ran out meanwhile
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverSales() {
+        LocalDateTime now = LocalDateTime.now();
+        for (FlashSale sale : flashSaleRepository.findByStatusOrderByIdAsc(Status.ACTIVE)) {
+            if (sale.getEndsAt().isAfter(now)) {
+                LiveSale live = new LiveSale(sale, stripes);
+                jdbcTemplate.query("SELECT user_id, SUM(quantity) FROM flash_sale_purchases WHERE flash_sale_id = ? " +
+                        "GROUP BY user_id", resultSet -> {
+                    live.boughtByUser.put(resultSet.getLong(1), new AtomicInteger(resultSet.getInt(2)));
+                }, sale.getId());
+                liveSales.put(sale.getId(), live);
+            } else {
+                transactionTemplate.execute(status -> endInDatabase(sale.getId()));
+            }
+        }
+        if (!liveSales.isEmpty()) {
+            logger.info("Recovered {} running flash sales", liveSales.size());
+        }
+    }
+
+    public FlashSaleView startSale(FlashSaleRequest request) {
+        if (request.getProductId() == null) {
+            throw new RuntimeException("Product id is required");
+        }
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            throw new RuntimeException("Quantity must be greater than 0");
+        }
+        int durationMinutes = request.getDurationMinutes() != null ? request.getDurationMinutes()
+                : defaultDurationMinutes;
+        if (durationMinutes <= 0) {
+            throw new RuntimeException("Duration must be greater than 0");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        FlashSale sale = transactionTemplate.execute(status -> {
+            if (flashSaleRepository.existsByProductIdAndStatus(request.getProductId(), Status.ACTIVE)) {
+                throw new RuntimeException("Product already has an active flash sale");
+            }
+            if (productRepository.reserveStock(request.getProductId(), request.getQuantity(), now) == 0) {
+                throw new RuntimeException("Insufficient stock for flash sale");
+            }
+            FlashSale created = flashSaleRepository.save(
+                    new FlashSale(request.getProductId(), request.getQuantity(), now.plusMinutes(durationMinutes)));
+            eventPublisher.publishEvent(ProductChangedEvent.of(request.getProductId()));
+            return created;
+        });
+        LiveSale live = new LiveSale(sale, stripes);
+        liveSales.put(sale.getId(), live);
+        logger.info("Started flash sale {} of {} units of product {}", sale.getId(), sale.getAllocated(),
+                sale.getProductId());
+        return toView(live);
+    }
+
+    // Admitted in memory, then confirmed once the next flush has written it
+    public FlashPurchaseResult purchase(Long saleId, Long userId, int quantity) {
+        if (quantity <= 0 || quantity > maxPerPurchase) {
+            throw new RuntimeException("Quantity must be between 1 and " + maxPerPurchase);
+        }
+        LiveSale sale = liveSales.get(saleId);
+        if (sale == null) {
+            throw new RuntimeException("Flash sale not found or not active");
+        }
+        PendingPurchase purchase = new PendingPurchase(sale, userId, quantity);
+        sale.inFlight.increment();
+        try {
+            if (sale.closed || System.currentTimeMillis() >= sale.endsAtMillis) {
+                throw new RuntimeException("Flash sale has ended");
+            }
+            AtomicInteger bought = sale.boughtByUser.computeIfAbsent(userId, id -> new AtomicInteger());
+            if (bought.addAndGet(quantity) > maxPerUser) {
+                bought.addAndGet(-quantity);
+                throw new RuntimeException("At most " + maxPerUser + " units per buyer in this flash sale");
+            }
+            if (!sale.stock.tryTake(quantity)) {
+                bought.addAndGet(-quantity);
+                rejectedPurchases.increment();
+                return new FlashPurchaseResult(saleId, false, 0, sale.stock.remaining());
+            }
+            pendingUnits.add(quantity);
+            pendingPurchases.add(purchase);
+        } finally {
+            sale.inFlight.decrement();
+        }
+
+        try {
+            purchase.written.orTimeout(confirmTimeout, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            failedPurchases.increment();
+            if (!(e.getCause() instanceof TimeoutException)) {
+                // The batch failed and has already given the units back
+                throw new RuntimeException("Could not complete the flash sale purchase, please try again");
+            }
+            if (purchase.state.compareAndSet(PendingPurchase.PENDING, PendingPurchase.WITHDRAWN)) {
+                // No batch will write it now, so the units go back on sale
+                pendingUnits.add(-quantity);
+                purchase.giveBack();
+                throw new RuntimeException("Flash sale is busy, please try again");
+            }
+            // Already in a batch that has not finished; its outcome decides whether the units were sold
+            throw new RuntimeException("Flash sale purchase could not be confirmed in time");
+        }
+        acceptedPurchases.increment();
+        return new FlashPurchaseResult(saleId, true, quantity, sale.stock.remaining());
+    }
+
+    public FlashSaleView getSale(Long saleId) {
+        LiveSale live = liveSales.get(saleId);
+        if (live != null) {
+            return toView(live);
+        }
+        FlashSale sale = flashSaleRepository.findById(saleId)
+                .orElseThrow(() -> new RuntimeException("Flash sale not found"));
+        return new FlashSaleView(sale.getId(), sale.getProductId(), sale.getAllocated(), sale.getSold(),
+                sale.getStatus() == Status.ACTIVE ? sale.getAllocated() - sale.getSold() : 0, sale.getStatus(),
+                sale.getEndsAt());
+    }
+
+    public List<FlashSaleView> getActiveSales() {
+        return liveSales.values().stream()
+                .filter(sale -> !sale.closed)
+                .sorted(Comparator.comparing(sale -> sale.id))
+                .map(this::toView)
+                .collect(Collectors.toList());
+    }
+
+    // Stops admitting, writes what was sold and gives the rest back to the product's stock
+    public synchronized FlashSaleView endSale(Long saleId) {
+        LiveSale sale = liveSales.get(saleId);
+        if (sale != null) {
+            sale.closed = true;
+            while (sale.inFlight.sum() != 0) {
+                Thread.onSpinWait();
+            }
+            // Every admitted purchase is queued now; it is either written or failed back to its buyer
+            flush();
+        }
+        transactionTemplate.execute(status -> endInDatabase(saleId));
+        liveSales.remove(saleId);
+        return getSale(saleId);
+    }
+
+    @Scheduled(fixedDelayString = "${flash-sale.sweep-interval:5000}")
+    public void endFinishedSales() {
+        long now = System.currentTimeMillis();
+        for (LiveSale sale : new ArrayList<>(liveSales.values())) {
+            if (sale.closed || now >= sale.endsAtMillis || sale.stock.remaining() == 0) {
+                try {
+                    endSale(sale.id);
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to end flash sale {}: {}", sale.id, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startFlushing() {
+        scheduleFlush();
+    }
+
+    // Each flush runs on the flash sale thread flush-interval after the previous one finished
+    private void scheduleFlush() {
+        if (!stopped) {
+            CompletableFuture.delayedExecutor(flushInterval, TimeUnit.MILLISECONDS, flashSaleExecutor)
+                    .execute(this::scheduledFlush);
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush flash sale purchases", e);
+        } finally {
+            scheduleFlush();
+        }
+    }
+
+    public synchronized void flush() {
+        List<PendingPurchase> claimed = new ArrayList<>();
+        for (PendingPurchase purchase = pendingPurchases.poll(); purchase != null; purchase = pendingPurchases.poll()) {
+            if (purchase.state.compareAndSet(PendingPurchase.PENDING, PendingPurchase.CLAIMED)) {
+                pendingUnits.add(-purchase.quantity);
+                claimed.add(purchase);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> soldBySale = new TreeMap<>();
+        Map<Long, Long> soldByProduct = new TreeMap<>();
+        for (PendingPurchase purchase : claimed) {
+            soldBySale.merge(purchase.sale.id, (long) purchase.quantity, Long::sum);
+            soldByProduct.merge(purchase.sale.productId, (long) purchase.quantity, Long::sum);
+        }
+        List<Object[]> saleBatch = new ArrayList<>(soldBySale.size());
+        soldBySale.forEach((saleId, units) -> saleBatch.add(new Object[] { units, saleId }));
+        List<Object[]> productBatch = new ArrayList<>(soldByProduct.size());
+        soldByProduct.forEach((productId, units) -> productBatch.add(new Object[] { units, productId }));
+        List<Object[]> purchaseBatch = claimed.stream()
+                .map(purchase -> new Object[] { purchase.sale.id, purchase.userId, purchase.quantity,
+                        purchase.admittedAt })
+                .collect(Collectors.toList());
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(SALE_SOLD_SQL, saleBatch);
+                jdbcTemplate.batchUpdate(PRODUCT_SOLD_SQL, productBatch);
+                jdbcTemplate.batchUpdate(PURCHASE_SQL, purchaseBatch);
+            });
+        } catch (RuntimeException e) {
+            // Nothing was sold: the units go back on sale and the buyers still waiting are failed
+            for (PendingPurchase purchase : claimed) {
+                purchase.giveBack();
+                purchase.written.completeExceptionally(e);
+            }
+            failedFlushes.increment();
+            logger.warn("Failed to flush {} flash sale purchases: {}", claimed.size(), e.getMessage());
+            return;
+        }
+        claimed.forEach(purchase -> purchase.written.complete(null));
+        // Only the rankings move; a product change would invalidate every cached list each flush
+        productLeaderboards.addSales(soldByProduct);
+        productSuggester.addSales(soldByProduct);
+        catalogVersion.countersFlushed();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        stopped = true;
+        flush();
+    }
+
+    // The status guard makes ending idempotent, so unsold units are returned only once
+    private boolean endInDatabase(Long saleId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (jdbcTemplate.update("UPDATE flash_sales SET status = 'ENDED', updated_at = ? " +
+                "WHERE id = ? AND status = 'ACTIVE'", now, saleId) == 0) {
+            return false;
+        }
+        List<long[]> rows = jdbcTemplate.query("SELECT product_id, allocated - sold FROM flash_sales WHERE id = ?",
+                (resultSet, rowNum) -> new long[] { resultSet.getLong(1), resultSet.getLong(2) }, saleId);
+        long productId = rows.get(0)[0];
+        jdbcTemplate.update("UPDATE products SET stock_quantity = stock_quantity + ?, updated_at = ? WHERE id = ?",
+                rows.get(0)[1], now, productId);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+        logger.info("Ended flash sale {}, returned {} unsold units of product {}", saleId, rows.get(0)[1], productId);
+        return true;
+    }
+
+    private FlashSaleView toView(LiveSale sale) {
+        long remaining = sale.stock.remaining();
+        return new FlashSaleView(sale.id, sale.productId, sale.allocated, sale.allocated - remaining, remaining,
+                sale.closed ? Status.ENDED : Status.ACTIVE, sale.endsAt);
+    }
+}
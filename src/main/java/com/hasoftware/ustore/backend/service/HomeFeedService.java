@@ -0,0 +1,116 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.hasoftware.ustore.backend.dto.HomeFeed;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Builds the home feed by loading its sections concurrently. Every section has the same
+// time budget, counted from the start of the request; late or failed sections are left
+// out and the rest is returned.
+@Service
+public class HomeFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HomeFeedService.class);
+
+    public static final String FEATURED = "featured";
+    public static final String NEW_PRODUCTS = "newProducts";
+    public static final String BEST_SELLERS = "bestSellers";
+    public static final String CATEGORIES = "categories";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    @Qualifier("homeFeedExecutor")
+    private ThreadPoolTaskExecutor homeFeedExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${home.feed.section-size:10}")
+    private int sectionSize;
+
+    @Value("${home.feed.section-timeout:500ms}")
+    private Duration sectionTimeout;
+
+    private static final class Section<T> {
+        private final CompletableFuture<T> result;
+        private final Consumer<T> target;
+
+        private Section(CompletableFuture<T> result, Consumer<T> target) {
+            this.result = result;
+            this.target = target;
+        }
+    }
+
+    public HomeFeed getHomeFeed() {
+        HomeFeed feed = new HomeFeed();
+        Pageable firstPage = PageRequest.of(0, sectionSize);
+
+        Map<String, Section<?>> sections = new LinkedHashMap<>();
+        sections.put(FEATURED, submit(() -> productService.getFeaturedProducts(firstPage).getContent(),
+                feed::setFeatured));
+        sections.put(NEW_PRODUCTS, submit(() -> productService.getNewProducts(firstPage).getContent(),
+                feed::setNewProducts));
+        sections.put(BEST_SELLERS, submit(() -> productService.getBestSellingProducts(firstPage).getContent(),
+                feed::setBestSellers));
+        sections.put(CATEGORIES, submit(categoryService::getActiveCategories, feed::setCategories));
+
+        long deadline = System.nanoTime() + sectionTimeout.toNanos();
+        sections.forEach((name, section) -> {
+            if (!collect(name, section, deadline)) {
+                feed.getMissingSections().add(name);
+                meterRegistry.counter("ustore.home.feed.sections.missing", "section", name).increment();
+            }
+        });
+        return feed;
+    }
+
+    private <T> Section<T> submit(Supplier<T> loader, Consumer<T> target) {
+        CompletableFuture<T> result;
+        try {
+            result = CompletableFuture.supplyAsync(loader, homeFeedExecutor);
+        } catch (RejectedExecutionException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return new Section<>(result, target);
+    }
+
+    private <T> boolean collect(String name, Section<T> section, long deadline) {
+        try {
+            T value = section.result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            section.target.accept(value);
+            return true;
+        } catch (TimeoutException e) {
+            section.result.cancel(true);
+            logger.warn("Home feed section {} exceeded its {} ms budget", name, sectionTimeout.toMillis());
+        } catch (ExecutionException e) {
+            logger.warn("Home feed section {} failed: {}", name, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,209 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.hasoftware.ustore.backend.dto.ReservationItem;
+import com.hasoftware.ustore.backend.dto.ReservationRequest;
+import com.hasoftware.ustore.backend.dto.ReservationView;
+import com.hasoftware.ustore.backend.entity.StockReservation;
+import com.hasoftware.ustore.backend.entity.StockReservation.Status;
+import com.hasoftware.ustore.backend.event.ProductChangedEvent;
+import com.hasoftware.ustore.backend.repository.ProductRepository;
+import com.hasoftware.ustore.backend.repository.StockReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Time-limited stock holds for checkout. Reserving takes the quantity out of
+// products.stock_quantity with a conditional UPDATE, so concurrent buyers can never take
+// more than there is; committing counts the sale, releasing or expiring gives it back.
+// Every line of a cart moves together, in one transaction.
+@Service
+@Transactional
+public class InventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.reservation.hold-time:10m}")
+    private Duration holdTime;
+
+    @Value("${inventory.reservation.max-hold-time:30m}")
+    private Duration maxHoldTime;
+
+    @Value("${inventory.reservation.max-items:100}")
+    private int maxItems;
+
+    @Value("${inventory.reservation.expiry-batch-size:200}")
+    private int expiryBatchSize;
+
+    // All or nothing: the first line without enough stock rolls back the lines before it
+    public ReservationView reserve(Long userId, ReservationRequest request) {
+        Map<Long, Integer> quantities = mergeItems(request.getItems());
+        Duration hold = holdTime;
+        if (request.getHoldSeconds() != null) {
+            if (request.getHoldSeconds() <= 0) {
+                throw new RuntimeException("Hold time must be greater than 0");
+            }
+            hold = Duration.ofSeconds(Math.min(request.getHoldSeconds(), maxHoldTime.getSeconds()));
+        }
+
+        String reservationKey = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(hold);
+        List<StockReservation> lines = new ArrayList<>(quantities.size());
+        // Product id order, so that carts sharing products lock their rows in the same order
+        quantities.forEach((productId, quantity) -> {
+            if (productRepository.reserveStock(productId, quantity, now) == 0) {
+                meterRegistry.counter("ustore.inventory.reservations", "result", "rejected").increment();
+                throw new RuntimeException("Insufficient stock for product " + productId);
+            }
+            lines.add(new StockReservation(reservationKey, productId, userId, quantity, expiresAt));
+        });
+        stockReservationRepository.saveAll(lines);
+
+        eventPublisher.publishEvent(new ProductChangedEvent(quantities.keySet()));
+        meterRegistry.counter("ustore.inventory.reservations", "result", "held").increment();
+        return toView(lines, Status.HELD);
+    }
+
+    public ReservationView commit(Long userId, String reservationKey) {
+        List<StockReservation> lines = findLines(userId, reservationKey);
+        LocalDateTime now = LocalDateTime.now();
+        if (stockReservationRepository.updateUnexpiredHeldStatus(reservationKey, Status.HELD, Status.COMMITTED,
+                now) == 0) {
+            boolean expired = lines.get(0).getStatus() == Status.EXPIRED
+                    || (lines.get(0).getStatus() == Status.HELD && !lines.get(0).getExpiresAt().isAfter(now));
+            throw new RuntimeException(expired ? "Reservation has expired" : "Reservation is no longer held");
+        }
+        lines.forEach(line -> productRepository.addSoldCount(line.getProductId(), line.getQuantity(), now));
+        finished(lines, Status.COMMITTED);
+        return toView(lines, Status.COMMITTED);
+    }
+
+    public ReservationView release(Long userId, String reservationKey) {
+        List<StockReservation> lines = findLines(userId, reservationKey);
+        if (lines.get(0).getStatus() != Status.HELD) {
+            // Already finished before this call; releasing again changes nothing
+            return toView(lines, lines.get(0).getStatus());
+        }
+        if (!restore(reservationKey, lines, Status.RELEASED)) {
+            throw new RuntimeException("Reservation is no longer held");
+        }
+        return toView(lines, Status.RELEASED);
+    }
+
+    @Transactional(readOnly = true)
+    public ReservationView getReservation(Long userId, String reservationKey) {
+        List<StockReservation> lines = findLines(userId, reservationKey);
+        return toView(lines, lines.get(0).getStatus());
+    }
+
+    // Gives back the stock of holds that were neither committed nor released in time. Each
+    // reservation expires in its own transaction, so one failure does not hold back the rest.
+    @Scheduled(fixedDelayString = "${inventory.reservation.expiry-interval:30000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void expireHolds() {
+        List<String> reservationKeys = stockReservationRepository.findExpiredReservationKeys(Status.HELD,
+                LocalDateTime.now(), PageRequest.of(0, expiryBatchSize));
+        int expired = 0;
+        for (String reservationKey : reservationKeys) {
+            try {
+                Boolean restored = transactionTemplate.execute(status -> restore(reservationKey,
+                        stockReservationRepository.findByReservationKeyOrderByProductIdAsc(reservationKey),
+                        Status.EXPIRED));
+                expired += Boolean.TRUE.equals(restored) ? 1 : 0;
+            } catch (RuntimeException e) {
+                logger.warn("Failed to expire stock reservation {}: {}", reservationKey, e.getMessage());
+            }
+        }
+        if (expired > 0) {
+            logger.info("Expired {} stock reservations", expired);
+        }
+    }
+
+    // False when another transaction finished the reservation first
+    private boolean restore(String reservationKey, List<StockReservation> lines, Status status) {
+        LocalDateTime now = LocalDateTime.now();
+        if (stockReservationRepository.updateHeldStatus(reservationKey, Status.HELD, status, now) == 0) {
+            return false;
+        }
+        lines.forEach(line -> productRepository.restoreStock(line.getProductId(), line.getQuantity(), now));
+        finished(lines, status);
+        return true;
+    }
+
+    private void finished(List<StockReservation> lines, Status status) {
+        eventPublisher.publishEvent(new ProductChangedEvent(lines.stream()
+                .map(StockReservation::getProductId)
+                .collect(Collectors.toList())));
+        meterRegistry.counter("ustore.inventory.reservations", "result", status.name().toLowerCase()).increment();
+    }
+
+    // Other users' reservations are reported as missing
+    private List<StockReservation> findLines(Long userId, String reservationKey) {
+        List<StockReservation> lines =
+                stockReservationRepository.findByReservationKeyOrderByProductIdAsc(reservationKey);
+        if (lines.isEmpty() || !lines.get(0).getUserId().equals(userId)) {
+            throw new RuntimeException("Reservation not found");
+        }
+        return lines;
+    }
+
+    private Map<Long, Integer> mergeItems(List<ReservationItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new RuntimeException("Reservation has no items");
+        }
+        if (items.size() > maxItems) {
+            throw new RuntimeException("Too many items in one reservation, the limit is " + maxItems);
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (ReservationItem item : items) {
+            if (item.getProductId() == null) {
+                throw new RuntimeException("Product id is required");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new RuntimeException("Quantity must be greater than 0");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private static ReservationView toView(List<StockReservation> lines, Status status) {
+        List<ReservationItem> items = lines.stream()
+                .map(line -> new ReservationItem(line.getProductId(), line.getQuantity()))
+                .collect(Collectors.toList());
+        return new ReservationView(lines.get(0).getReservationKey(), status, lines.get(0).getExpiresAt(), items);
+    }
+}
@@ -0,0 +1,171 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.hasoftware.ustore.backend.dto.BulkUpdateResult;
+import com.hasoftware.ustore.backend.dto.ImportError;
+import com.hasoftware.ustore.backend.dto.ProductStockPriceUpdate;
+import com.hasoftware.ustore.backend.event.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Repricing and restocking by SKU without loading entities: each chunk resolves its SKUs
+// with one query and applies a JDBC batch of UPDATEs by primary key in one transaction.
+// Caches and indexes hear about all changed products through a single event at the end.
+@Service
+public class ProductBulkUpdateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductBulkUpdateService.class);
+
+    private static final String UPDATE_SQL = "UPDATE products SET price = COALESCE(?, price), " +
+            "original_price = COALESCE(?, original_price), stock_quantity = COALESCE(?, stock_quantity), " +
+            "updated_at = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.bulk-update.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${product.bulk-update.max-items:20000}")
+    private int maxItems;
+
+    private Counter updatedProducts;
+
+    @PostConstruct
+    public void init() {
+        updatedProducts = Counter.builder("ustore.product.bulk-update.rows")
+                .description("Products repriced or restocked by bulk updates")
+                .register(meterRegistry);
+    }
+
+    public BulkUpdateResult updatePricesAndStock(List<ProductStockPriceUpdate> updates) {
+        if (updates.size() > maxItems) {
+            throw new RuntimeException("Too many items in one bulk update, the limit is " + maxItems);
+        }
+
+        long start = System.currentTimeMillis();
+        BulkUpdateResult result = new BulkUpdateResult();
+        result.setTotal(updates.size());
+        Set<String> seenSkus = new HashSet<>();
+        List<Long> changedIds = new ArrayList<>();
+        try {
+            for (int from = 0; from < updates.size(); from += chunkSize) {
+                List<ProductStockPriceUpdate> chunk = updates.subList(from, Math.min(from + chunkSize, updates.size()));
+                updateChunk(chunk, from, seenSkus, changedIds, result);
+            }
+        } finally {
+            // Earlier chunks are committed even if a later one failed
+            if (!changedIds.isEmpty()) {
+                eventPublisher.publishEvent(new ProductChangedEvent(changedIds));
+            }
+        }
+
+        result.setUpdated(changedIds.size());
+        result.setDurationMs(System.currentTimeMillis() - start);
+        updatedProducts.increment(changedIds.size());
+        logger.info("Bulk updated {} of {} products in {} ms", changedIds.size(), updates.size(),
+                result.getDurationMs());
+        return result;
+    }
+
+    private void updateChunk(List<ProductStockPriceUpdate> chunk, int offset, Set<String> seenSkus,
+            List<Long> changedIds, BulkUpdateResult result) {
+        Map<Integer, String> errors = new TreeMap<>();
+        List<String> skus = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            String error = validate(chunk.get(i));
+            if (error == null && !seenSkus.add(chunk.get(i).getSku())) {
+                error = "Duplicate SKU in request";
+            }
+            if (error != null) {
+                errors.put(i, error);
+            } else {
+                skus.add(chunk.get(i).getSku());
+            }
+        }
+
+        Map<String, Long> idsBySku = new HashMap<>();
+        if (!skus.isEmpty()) {
+            namedParameterJdbcTemplate.query("SELECT id, sku FROM products WHERE sku IN (:skus)",
+                    Map.of("skus", skus), resultSet -> {
+                        idsBySku.put(resultSet.getString(2), resultSet.getLong(1));
+                    });
+        }
+
+        List<Object[]> batch = new ArrayList<>(skus.size());
+        List<Long> ids = new ArrayList<>(skus.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (errors.containsKey(i)) {
+                continue;
+            }
+            ProductStockPriceUpdate update = chunk.get(i);
+            Long id = idsBySku.get(update.getSku());
+            if (id == null) {
+                errors.put(i, "SKU not found");
+                continue;
+            }
+            batch.add(new Object[] { update.getPrice(), update.getOriginalPrice(), update.getStockQuantity(), now,
+                    id });
+            ids.add(id);
+        }
+
+        if (!batch.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, batch));
+            changedIds.addAll(ids);
+        }
+        errors.forEach((index, message) -> result.getErrors()
+                .add(new ImportError(offset + index + 1, chunk.get(index).getSku(), message)));
+        result.setFailed(result.getFailed() + errors.size());
+    }
+
+    private static String validate(ProductStockPriceUpdate update) {
+        if (update.getSku() == null || update.getSku().isBlank()) {
+            return "SKU is required";
+        }
+        if (update.getPrice() == null && update.getOriginalPrice() == null && update.getStockQuantity() == null) {
+            return "Nothing to update";
+        }
+        if (update.getPrice() != null && update.getPrice().signum() <= 0) {
+            return "Price must be greater than 0";
+        }
+        if (update.getOriginalPrice() != null && update.getOriginalPrice().signum() < 0) {
+            return "Original price must not be negative";
+        }
+        if (update.getStockQuantity() != null && update.getStockQuantity() < 0) {
+            return "Stock quantity must not be negative";
+        }
+        return null;
+    }
+}
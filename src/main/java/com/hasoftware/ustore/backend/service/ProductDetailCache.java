@@ -0,0 +1,57 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hasoftware.ustore.backend.dto.ProductDetail;
+import com.hasoftware.ustore.backend.event.ProductChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// Per-node cache of product detail views. Entries are shared between requests and must not be modified.
+@Component
+public class ProductDetailCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.detail-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${product.detail-cache.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    private Cache<Long, ProductDetail> cache;
+
+    @PostConstruct
+    public void init() {
+        // Caffeine evicts by W-TinyLFU once the size bound is reached
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productDetail");
+    }
+
+    public ProductDetail get(Long productId, Function<Long, ProductDetail> loader) {
+        return cache.get(productId, loader);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // Runs after commit so a concurrent reader cannot re-cache the pre-commit row
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache.invalidateAll(event.getProductIds());
+    }
+}
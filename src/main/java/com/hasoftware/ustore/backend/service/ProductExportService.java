@@ -0,0 +1,155 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+
+// Writes the whole catalog to a stream one row at a time. Rows come from a forward-only
+// streaming result set (fetch size Integer.MIN_VALUE on MySQL, set on the export statement
+// only), are never mapped to entities and are not kept after they are written, so the heap
+// stays flat whatever the catalog size.
+@Service
+public class ProductExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductExportService.class);
+
+    // Field names and CSV headers, in select order; the bulk import reads the same names
+    static final String[] COLUMNS = { "id", "sku", "name", "description", "brand", "price", "originalPrice",
+            "discountPercentage", "stockQuantity", "minStockLevel", "isActive", "isFeatured", "isNew", "color", "size",
+            "material", "rating", "reviewCount", "viewCount", "soldCount", "categoryId", "categoryName",
+            "primaryImageUrl", "createdAt", "updatedAt" };
+
+    private static final String EXPORT_SQL = "SELECT p.id, p.sku, p.name, p.description, p.brand, p.price, " +
+            "p.original_price, p.discount_percentage, p.stock_quantity, p.min_stock_level, p.is_active, " +
+            "p.is_featured, p.is_new, p.color, p.size, p.material, p.rating, p.review_count, p.view_count, " +
+            "p.sold_count, p.category_id, c.name, " +
+            "(SELECT pi.image_url FROM product_images pi WHERE pi.product_id = p.id " +
+            "ORDER BY pi.is_primary DESC, pi.sort_order ASC LIMIT 1), " +
+            "p.created_at, p.updated_at " +
+            "FROM products p LEFT JOIN categories c ON c.id = p.category_id ORDER BY p.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.export.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    private JdbcTemplate cursorTemplate;
+
+    @PostConstruct
+    public void init() {
+        cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursorTemplate.setFetchSize(fetchSize);
+    }
+
+    public void export(CatalogFormat format, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        long rows;
+        try {
+            rows = format == CatalogFormat.NDJSON ? exportNdjson(out) : exportCsv(out);
+        } catch (UncheckedIOException e) {
+            // Usually the client went away or the request timed out; the cursor has been closed by now
+            throw e.getCause();
+        }
+        meterRegistry.counter("ustore.product.export.rows", "format", format.getExtension()).increment(rows);
+        logger.info("Exported {} products as {} in {} ms", rows, format, System.currentTimeMillis() - start);
+    }
+
+    private long exportNdjson(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // Lines are separated by the newline written after each object, not by Jackson's default space
+        generator.setRootValueSeparator(null);
+        long rows = stream(resultSet -> {
+            try {
+                generator.writeStartObject();
+                for (int column = 1; column <= COLUMNS.length; column++) {
+                    Object value = resultSet.getObject(column);
+                    generator.writeFieldName(COLUMNS[column - 1]);
+                    if (value instanceof Timestamp) {
+                        generator.writeString(((Timestamp) value).toLocalDateTime().toString());
+                    } else {
+                        generator.writeObject(value);
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.flush();
+        return rows;
+    }
+
+    private long exportCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+        long rows = stream(resultSet -> {
+            try {
+                for (int column = 1; column <= COLUMNS.length; column++) {
+                    Object value = resultSet.getObject(column);
+                    writer.write(column > 1 ? "," : "");
+                    if (value instanceof Timestamp) {
+                        writer.write(((Timestamp) value).toLocalDateTime().toString());
+                    } else if (value instanceof BigDecimal) {
+                        writer.write(((BigDecimal) value).toPlainString());
+                    } else if (value != null) {
+                        writer.write(csvValue(value.toString()));
+                    }
+                }
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+        return rows;
+    }
+
+    private long stream(RowCallbackHandler rowWriter) {
+        long[] rows = { 0 };
+        cursorTemplate.query(EXPORT_SQL, (RowCallbackHandler) resultSet -> {
+            // Set when the request times out; leaving the query closes the cursor
+            if (Thread.currentThread().isInterrupted()) {
+                throw new UncheckedIOException(new InterruptedIOException("Export cancelled after " + rows[0] +
+                        " rows"));
+            }
+            rowWriter.processRow(resultSet);
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    private static String csvValue(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,560 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.hasoftware.ustore.backend.dto.ImportError;
+import com.hasoftware.ustore.backend.dto.ProductImportResult;
+import com.hasoftware.ustore.backend.event.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+// Loads supplier feeds (CSV or NDJSON with the export's field names) without a query per
+// row. Existing SKUs and categories are loaded once, chunks are parsed and validated in
+// parallel, and each chunk is written in file order with JDBC batches in its own
+// transaction. Products are matched by SKU: new ones are inserted, known ones updated.
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO products (name, description, brand, price, original_price, " +
+            "discount_percentage, stock_quantity, min_stock_level, is_active, is_featured, is_new, color, size, " +
+            "material, category_id, updated_at, sku, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Fields the feed leaves out keep their current value
+    private static final String UPDATE_SQL = "UPDATE products SET name = COALESCE(?, name), " +
+            "description = COALESCE(?, description), brand = COALESCE(?, brand), price = COALESCE(?, price), " +
+            "original_price = COALESCE(?, original_price), discount_percentage = COALESCE(?, discount_percentage), " +
+            "stock_quantity = COALESCE(?, stock_quantity), min_stock_level = COALESCE(?, min_stock_level), " +
+            "is_active = COALESCE(?, is_active), is_featured = COALESCE(?, is_featured), " +
+            "is_new = COALESCE(?, is_new), color = COALESCE(?, color), size = COALESCE(?, size), " +
+            "material = COALESCE(?, material), category_id = COALESCE(?, category_id), updated_at = ? " +
+            "WHERE id = ?";
+
+    // One parsed feed record; error is set instead of failing the whole chunk
+    private static final class ImportRow {
+        private final int line;
+        private String sku;
+        private String name;
+        private String description;
+        private String brand;
+        private BigDecimal price;
+        private BigDecimal originalPrice;
+        private Integer discountPercentage;
+        private Integer stockQuantity;
+        private Integer minStockLevel;
+        private Boolean isActive;
+        private Boolean isFeatured;
+        private Boolean isNew;
+        private String color;
+        private String size;
+        private String material;
+        private Long categoryId;
+        private Long id;
+        private String error;
+
+        private ImportRow(int line) {
+            this.line = line;
+        }
+    }
+
+    // A raw record as read from the feed, parsed later on a worker thread
+    private static final class RawRecord {
+        private final int line;
+        private final String json;
+        private final String[] fields;
+
+        private RawRecord(int line, String json, String[] fields) {
+            this.line = line;
+            this.json = json;
+            this.fields = fields;
+        }
+    }
+
+    // SKU / category state of one import, loaded once at its start
+    private static final class ImportContext {
+        private final Map<String, Long> skuIds = new HashMap<>();
+        private final Set<String> seenSkus = new HashSet<>();
+        private final Set<Long> categoryIds = new HashSet<>();
+        private final Map<String, Long> categoryIdsByName = new HashMap<>();
+        private final List<Long> changedIds = new ArrayList<>();
+        private final boolean updateExisting;
+        private final ProductImportResult result = new ProductImportResult();
+
+        private ImportContext(boolean updateExisting) {
+            this.updateExisting = updateExisting;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("productImportExecutor")
+    private ThreadPoolTaskExecutor productImportExecutor;
+
+    @Value("${product.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${product.import.threads:4}")
+    private int threads;
+
+    @Value("${product.import.max-errors:1000}")
+    private int maxErrors;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private ObjectReader jsonReader;
+
+    private Counter insertedRows;
+    private Counter updatedRows;
+    private Counter failedRows;
+    private Timer importTimer;
+
+    @PostConstruct
+    public void init() {
+        // Prices are read as BigDecimal so they are never rounded through a double
+        jsonReader = objectMapper.reader().with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        insertedRows = Counter.builder("ustore.product.import.rows").tag("result", "inserted")
+                .description("Products written by bulk imports").register(meterRegistry);
+        updatedRows = Counter.builder("ustore.product.import.rows").tag("result", "updated")
+                .description("Products written by bulk imports").register(meterRegistry);
+        failedRows = Counter.builder("ustore.product.import.rows").tag("result", "failed")
+                .description("Products written by bulk imports").register(meterRegistry);
+        importTimer = Timer.builder("ustore.product.import.duration")
+                .description("Duration of bulk product imports").register(meterRegistry);
+    }
+
+    public ProductImportResult importProducts(InputStream in, CatalogFormat format, boolean updateExisting) {
+        // The SKU set is a snapshot of this import, two imports at once could both insert the same SKU
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Another product import is running");
+        }
+        try {
+            return importTimer.record(() -> runImport(in, format, updateExisting));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ProductImportResult runImport(InputStream in, CatalogFormat format, boolean updateExisting) {
+        long start = System.currentTimeMillis();
+        ImportContext context = loadContext(updateExisting);
+        Deque<Future<List<ImportRow>>> inFlight = new ArrayDeque<>();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            // Spreadsheet exports often start with a UTF-8 BOM, which would stick to the first column name
+            reader.mark(1);
+            if (reader.read() != '\uFEFF') {
+                reader.reset();
+            }
+            Function<List<RawRecord>, List<ImportRow>> parser;
+            CsvRecordReader csv = null;
+            if (format == CatalogFormat.CSV) {
+                csv = new CsvRecordReader(reader);
+                String[] header = csv.next();
+                if (header == null) {
+                    throw new RuntimeException("Import file is empty");
+                }
+                Map<String, Integer> columns = new HashMap<>();
+                for (int i = 0; i < header.length; i++) {
+                    columns.put(header[i].trim(), i);
+                }
+                parser = records -> parseChunk(records, context, record -> name -> {
+                    Integer index = columns.get(name);
+                    String value = index != null && index < record.fields.length ? record.fields[index] : null;
+                    return value == null || value.isEmpty() ? null : value;
+                });
+            } else {
+                parser = records -> parseChunk(records, context, record -> {
+                    JsonNode node = jsonReader.readTree(record.json);
+                    if (!node.isObject()) {
+                        throw new IllegalArgumentException("Expected a JSON object");
+                    }
+                    return name -> node.hasNonNull(name) ? node.get(name).asText() : null;
+                });
+            }
+
+            int lineNumber = 0;
+            List<RawRecord> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                RawRecord record;
+                if (csv != null) {
+                    String[] fields = csv.next();
+                    record = fields != null ? new RawRecord(csv.getRecordLine(), null, fields) : null;
+                } else {
+                    String line = reader.readLine();
+                    lineNumber++;
+                    while (line != null && line.isBlank()) {
+                        line = reader.readLine();
+                        lineNumber++;
+                    }
+                    record = line != null ? new RawRecord(lineNumber, line, null) : null;
+                }
+                if (record != null) {
+                    chunk.add(record);
+                }
+                if (chunk.size() == chunkSize || (record == null && !chunk.isEmpty())) {
+                    List<RawRecord> records = chunk;
+                    inFlight.add(productImportExecutor.submit(() -> parser.apply(records)));
+                    chunk = new ArrayList<>(chunkSize);
+                    // Bounded read-ahead keeps memory flat however large the feed is
+                    if (inFlight.size() >= threads * 2) {
+                        write(inFlight.poll().get(), context);
+                    }
+                }
+                if (record == null) {
+                    break;
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.poll().get(), context);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read import: " + e.getMessage());
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to parse import: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Import interrupted");
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+            // Chunks commit on their own, so whatever was written is announced even if the import failed.
+            // A single event lets the indexes rebuild once instead of applying every row.
+            if (!context.changedIds.isEmpty()) {
+                eventPublisher.publishEvent(new ProductChangedEvent(context.changedIds));
+            }
+        }
+
+        ProductImportResult result = context.result;
+        result.setDurationMs(System.currentTimeMillis() - start);
+        result.setRowsPerSecond(result.getTotal() * 1000.0 / Math.max(1, result.getDurationMs()));
+        logger.info("Imported {} products ({} inserted, {} updated, {} failed) in {} ms, {} rows/s",
+                result.getTotal(), result.getInserted(), result.getUpdated(), result.getFailed(),
+                result.getDurationMs(), Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    private ImportContext loadContext(boolean updateExisting) {
+        ImportContext context = new ImportContext(updateExisting);
+        jdbcTemplate.query("SELECT id, sku FROM products WHERE sku IS NOT NULL",
+                resultSet -> {
+                    context.skuIds.put(resultSet.getString(2), resultSet.getLong(1));
+                });
+        jdbcTemplate.query("SELECT id, name FROM categories", resultSet -> {
+            context.categoryIds.add(resultSet.getLong(1));
+            context.categoryIdsByName.putIfAbsent(resultSet.getString(2).toLowerCase(Locale.ROOT),
+                    resultSet.getLong(1));
+        });
+        return context;
+    }
+
+    @FunctionalInterface
+    private interface FieldSource {
+        Function<String, String> open(RawRecord record) throws IOException;
+    }
+
+    // Runs on a worker thread; only reads the context's category maps, which no longer change
+    private List<ImportRow> parseChunk(List<RawRecord> records, ImportContext context, FieldSource source) {
+        List<ImportRow> rows = new ArrayList<>(records.size());
+        for (RawRecord record : records) {
+            ImportRow row = new ImportRow(record.line);
+            try {
+                Function<String, String> field = source.open(record);
+                row.sku = trimmed(field.apply("sku"));
+                row.name = trimmed(field.apply("name"));
+                row.description = field.apply("description");
+                row.brand = trimmed(field.apply("brand"));
+                row.price = decimal(field.apply("price"));
+                row.originalPrice = decimal(field.apply("originalPrice"));
+                row.discountPercentage = integer(field.apply("discountPercentage"));
+                row.stockQuantity = integer(field.apply("stockQuantity"));
+                row.minStockLevel = integer(field.apply("minStockLevel"));
+                row.isActive = bool(field.apply("isActive"));
+                row.isFeatured = bool(field.apply("isFeatured"));
+                row.isNew = bool(field.apply("isNew"));
+                row.color = trimmed(field.apply("color"));
+                row.size = trimmed(field.apply("size"));
+                row.material = trimmed(field.apply("material"));
+                row.categoryId = resolveCategory(longValue(field.apply("categoryId")),
+                        trimmed(field.apply("categoryName")), context);
+                row.error = validate(row);
+            } catch (IOException | IllegalArgumentException e) {
+                row.error = "Malformed record: " + e.getMessage();
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Long resolveCategory(Long categoryId, String categoryName, ImportContext context) {
+        if (categoryId != null) {
+            if (!context.categoryIds.contains(categoryId)) {
+                throw new IllegalArgumentException("Category not found: " + categoryId);
+            }
+            return categoryId;
+        }
+        if (categoryName != null) {
+            Long id = context.categoryIdsByName.get(categoryName.toLowerCase(Locale.ROOT));
+            if (id == null) {
+                throw new IllegalArgumentException("Category not found: " + categoryName);
+            }
+            return id;
+        }
+        return null;
+    }
+
+    // Mirrors the entity's bean validation constraints
+    private static String validate(ImportRow row) {
+        if (row.sku == null) {
+            return "SKU is required";
+        }
+        if (row.sku.length() > 50) {
+            return "SKU is longer than 50 characters";
+        }
+        if (row.name != null && row.name.length() > 200) {
+            return "Name is longer than 200 characters";
+        }
+        if (row.description != null && row.description.length() > 1000) {
+            return "Description is longer than 1000 characters";
+        }
+        if (row.brand != null && row.brand.length() > 100) {
+            return "Brand is longer than 100 characters";
+        }
+        if (row.price != null && row.price.signum() <= 0) {
+            return "Price must be greater than 0";
+        }
+        if (row.originalPrice != null && row.originalPrice.signum() < 0) {
+            return "Original price must not be negative";
+        }
+        if (row.stockQuantity != null && row.stockQuantity < 0) {
+            return "Stock quantity must not be negative";
+        }
+        return null;
+    }
+
+    // Runs on the request thread, chunk by chunk in file order
+    private void write(List<ImportRow> rows, ImportContext context) {
+        List<ImportRow> inserts = new ArrayList<>();
+        List<ImportRow> updates = new ArrayList<>();
+        for (ImportRow row : rows) {
+            context.result.setTotal(context.result.getTotal() + 1);
+            if (row.error != null) {
+                fail(row, row.error, context);
+            } else if (!context.seenSkus.add(row.sku)) {
+                fail(row, "Duplicate SKU in import", context);
+            } else if (context.skuIds.containsKey(row.sku)) {
+                if (context.updateExisting) {
+                    row.id = context.skuIds.get(row.sku);
+                    updates.add(row);
+                } else {
+                    fail(row, "SKU already exists", context);
+                }
+            } else if (row.name == null || row.brand == null || row.price == null) {
+                fail(row, "Name, brand and price are required for new products", context);
+            } else {
+                inserts.add(row);
+            }
+        }
+        if (inserts.isEmpty() && updates.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ImportRow> inserted = new ArrayList<>(inserts.size());
+        List<ImportRow> updated = new ArrayList<>(updates.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                batchInsert(inserts, now);
+                batchUpdate(updates, now);
+            });
+            inserted.addAll(inserts);
+            updated.addAll(updates);
+        } catch (DataAccessException e) {
+            // Write the chunk row by row so that only the offending rows are reported
+            for (ImportRow row : inserts) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> batchInsert(List.of(row), now));
+                    inserted.add(row);
+                } catch (DataAccessException rowFailure) {
+                    fail(row, "Insert failed: " + rowFailure.getMostSpecificCause().getMessage(), context);
+                }
+            }
+            for (ImportRow row : updates) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> batchUpdate(List.of(row), now));
+                    updated.add(row);
+                } catch (DataAccessException rowFailure) {
+                    fail(row, "Update failed: " + rowFailure.getMostSpecificCause().getMessage(), context);
+                }
+            }
+        }
+
+        List<Long> changedIds = context.changedIds;
+        if (!inserted.isEmpty()) {
+            List<String> skus = inserted.stream().map(row -> row.sku).toList();
+            namedParameterJdbcTemplate.query("SELECT id, sku FROM products WHERE sku IN (:skus)",
+                    Map.of("skus", skus), resultSet -> {
+                        context.skuIds.put(resultSet.getString(2), resultSet.getLong(1));
+                        changedIds.add(resultSet.getLong(1));
+                    });
+        }
+        updated.forEach(row -> changedIds.add(row.id));
+        context.result.setInserted(context.result.getInserted() + inserted.size());
+        context.result.setUpdated(context.result.getUpdated() + updated.size());
+        insertedRows.increment(inserted.size());
+        updatedRows.increment(updated.size());
+    }
+
+    private void batchInsert(Collection<ImportRow> rows, LocalDateTime now) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            bindFields(ps, row, true);
+            ps.setTimestamp(16, timestamp);
+            ps.setString(17, row.sku);
+            ps.setTimestamp(18, timestamp);
+        });
+    }
+
+    private void batchUpdate(Collection<ImportRow> rows, LocalDateTime now) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(UPDATE_SQL, rows, rows.size(), (ps, row) -> {
+            bindFields(ps, row, false);
+            ps.setTimestamp(16, timestamp);
+            ps.setLong(17, row.id);
+        });
+    }
+
+    // Parameters 1-15, shared by both statements; new products get the entity's defaults
+    private static void bindFields(PreparedStatement ps, ImportRow row, boolean withDefaults) throws SQLException {
+        ps.setObject(1, row.name);
+        ps.setObject(2, row.description);
+        ps.setObject(3, row.brand);
+        ps.setObject(4, row.price);
+        ps.setObject(5, row.originalPrice);
+        ps.setObject(6, orDefault(row.discountPercentage, 0, withDefaults));
+        ps.setObject(7, orDefault(row.stockQuantity, 0, withDefaults));
+        ps.setObject(8, orDefault(row.minStockLevel, 0, withDefaults));
+        ps.setObject(9, orDefault(row.isActive, true, withDefaults));
+        ps.setObject(10, orDefault(row.isFeatured, false, withDefaults));
+        ps.setObject(11, orDefault(row.isNew, true, withDefaults));
+        ps.setObject(12, row.color);
+        ps.setObject(13, row.size);
+        ps.setObject(14, row.material);
+        ps.setObject(15, row.categoryId);
+    }
+
+    private static <T> T orDefault(T value, T defaultValue, boolean withDefaults) {
+        return value == null && withDefaults ? defaultValue : value;
+    }
+
+    private void fail(ImportRow row, String message, ImportContext context) {
+        ProductImportResult result = context.result;
+        result.setFailed(result.getFailed() + 1);
+        failedRows.increment();
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new ImportError(row.line, row.sku, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static String trimmed(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static BigDecimal decimal(String value) {
+        return value != null ? new BigDecimal(value.trim()) : null;
+    }
+
+    private static Integer integer(String value) {
+        return value != null ? Integer.valueOf(value.trim()) : null;
+    }
+
+    private static Long longValue(String value) {
+        return value != null ? Long.valueOf(value.trim()) : null;
+    }
+
+    private static Boolean bool(String value) {
+        if (value == null) {
+            return null;
+        }
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "1":
+                return true;
+            case "false":
+            case "0":
+                return false;
+            default:
+                throw new IllegalArgumentException("Not a boolean: " + value);
+        }
+    }
+}
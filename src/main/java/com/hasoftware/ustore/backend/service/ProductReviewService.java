@@ -0,0 +1,217 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.hasoftware.ustore.backend.dto.CursorSlice;
+import com.hasoftware.ustore.backend.dto.ReviewAuthor;
+import com.hasoftware.ustore.backend.dto.ReviewCursor;
+import com.hasoftware.ustore.backend.dto.ReviewRequest;
+import com.hasoftware.ustore.backend.dto.ReviewSummary;
+import com.hasoftware.ustore.backend.dto.ReviewView;
+import com.hasoftware.ustore.backend.entity.ProductReview;
+import com.hasoftware.ustore.backend.event.ProductChangedEvent;
+import com.hasoftware.ustore.backend.repository.ProductRepository;
+import com.hasoftware.ustore.backend.repository.ProductReviewRepository;
+import com.hasoftware.ustore.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Review writes move the rating in or out of the product's rating histogram within the
+// same transaction, so the product's rating and review count are always those of its
+// committed reviews without an aggregate over product_reviews.
+@Service
+@Transactional
+public class ProductReviewService {
+
+    private static final String HISTOGRAM_SQL = "SELECT rating_sum, rating_1, rating_2, rating_3, rating_4, " +
+            "rating_5, updated_at FROM products WHERE id = ?";
+
+    @Autowired
+    private ProductReviewRepository productReviewRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewSummaryCache reviewSummaryCache;
+
+    @Autowired
+    private ReviewVoteService reviewVoteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // A cache hit is a single key lookup; a miss reads the counters of one product row
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ReviewSummary getReviewSummary(Long productId) {
+        return reviewSummaryCache.get(productId, this::loadReviewSummary);
+    }
+
+    // Newest first. Keyset pagination over the (product_id, created_at, id) index; each slice reads
+    // size + 1 rows to learn whether there is a next one
+    @Transactional(readOnly = true)
+    public CursorSlice<ReviewView> getRecentReviews(Long productId, String cursor, int size) {
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<ReviewView> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = productReviewRepository.findRecentViews(productId, limit);
+        } else {
+            ReviewCursor after = ReviewCursor.decode(cursor, ReviewCursor.RECENT);
+            rows = productReviewRepository.findRecentViewsAfter(productId, (LocalDateTime) after.getKey(),
+                    after.getId(), limit);
+        }
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            ReviewView last = rows.get(size - 1);
+            nextCursor = new ReviewCursor(ReviewCursor.RECENT, last.getCreatedAt(), last.getId()).encode();
+        }
+        return toSlice(rows, size, Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")), nextCursor);
+    }
+
+    // Most helpful first, over the (product_id, helpfulness_score, id) index
+    @Transactional(readOnly = true)
+    public CursorSlice<ReviewView> getMostHelpfulReviews(Long productId, String cursor, int size) {
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<ReviewView> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = productReviewRepository.findMostHelpfulViews(productId, limit);
+        } else {
+            ReviewCursor after = ReviewCursor.decode(cursor, ReviewCursor.HELPFUL);
+            rows = productReviewRepository.findMostHelpfulViewsAfter(productId, (Integer) after.getKey(),
+                    after.getId(), limit);
+        }
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            ReviewView last = rows.get(size - 1);
+            // The stored score the query sorted on, so the next page seeks from exactly this row
+            nextCursor = new ReviewCursor(ReviewCursor.HELPFUL, last.getHelpfulnessScore(), last.getId()).encode();
+        }
+        return toSlice(rows, size, Sort.by(Sort.Order.desc("helpfulnessScore"), Sort.Order.desc("id")), nextCursor);
+    }
+
+    public ReviewView createReview(Long productId, Long userId, ReviewRequest request) {
+        validate(request);
+        if (!productRepository.existsById(productId)) {
+            throw new RuntimeException("Product not found");
+        }
+        if (productReviewRepository.existsByUserIdAndProductId(userId, productId)) {
+            throw new RuntimeException("You have already reviewed this product");
+        }
+
+        ProductReview review = productReviewRepository.save(new ProductReview(request.getRating(),
+                request.getComment(), productRepository.getReferenceById(productId),
+                userRepository.getReferenceById(userId)));
+        ratingChanged(productId, review.getRating(), 0);
+        return toView(review, productId, userId);
+    }
+
+    public ReviewView updateReview(Long productId, Long reviewId, Long userId, ReviewRequest request) {
+        validate(request);
+        ProductReview review = findReviewForUpdate(productId, reviewId);
+        if (!review.getUser().getId().equals(userId)) {
+            throw new RuntimeException("You can only edit your own review");
+        }
+
+        int previousRating = review.getRating();
+        review.setRating(request.getRating());
+        review.setComment(request.getComment());
+        productReviewRepository.save(review);
+        if (previousRating != request.getRating()) {
+            ratingChanged(productId, request.getRating(), previousRating);
+        }
+        return toView(review, productId, userId);
+    }
+
+    public void deleteReview(Long productId, Long reviewId, Long userId, boolean admin) {
+        ProductReview review = findReviewForUpdate(productId, reviewId);
+        if (!admin && !review.getUser().getId().equals(userId)) {
+            throw new RuntimeException("You can only delete your own review");
+        }
+        productReviewRepository.delete(review);
+        reviewVoteService.reviewDeleted(reviewId);
+        ratingChanged(productId, 0, review.getRating());
+    }
+
+    // The row lock serializes writes to one review, so each rating leaves the histogram once
+    private ProductReview findReviewForUpdate(Long productId, Long reviewId) {
+        ProductReview review = productReviewRepository.findByIdForUpdate(reviewId)
+                .orElseThrow(() -> new RuntimeException("Review not found"));
+        if (!review.getProduct().getId().equals(productId)) {
+            throw new RuntimeException("Review not found");
+        }
+        return review;
+    }
+
+    // 0 stands for no rating: added alone for a new review, removed alone for a deleted one
+    private void ratingChanged(Long productId, int added, int removed) {
+        productRepository.applyRatingChange(productId, added, removed, LocalDateTime.now());
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+    }
+
+    private ReviewSummary loadReviewSummary(Long productId) {
+        List<ReviewSummary> summaries = jdbcTemplate.query(HISTOGRAM_SQL, (resultSet, rowNum) -> {
+            Map<Integer, Integer> distribution = new LinkedHashMap<>();
+            int count = 0;
+            for (int star = 1; star <= 5; star++) {
+                distribution.put(star, resultSet.getInt(star + 1));
+                count += resultSet.getInt(star + 1);
+            }
+            Timestamp updatedAt = resultSet.getTimestamp(7);
+            return new ReviewSummary(productId, count > 0 ? (double) resultSet.getLong(1) / count : 0, count,
+                    distribution, updatedAt != null ? updatedAt.toLocalDateTime() : null);
+        }, productId);
+        if (summaries.isEmpty()) {
+            throw new RuntimeException("Product not found");
+        }
+        return summaries.get(0);
+    }
+
+    private static void validate(ReviewRequest request) {
+        if (request.getRating() == null || request.getRating() < 1 || request.getRating() > 5) {
+            throw new RuntimeException("Rating must be between 1 and 5");
+        }
+        if (request.getComment() != null && request.getComment().length() > 1000) {
+            throw new RuntimeException("Comment must be at most 1000 characters");
+        }
+    }
+
+    // Resolves the author of every review on the slice with a single query
+    private CursorSlice<ReviewView> toSlice(List<ReviewView> rows, int size, Sort sort, String nextCursor) {
+        List<ReviewView> views = new ArrayList<>(rows);
+        if (!views.isEmpty()) {
+            Set<Long> userIds = views.stream().map(ReviewView::getUserId).collect(Collectors.toSet());
+            Map<Long, ReviewAuthor> authors = new HashMap<>();
+            userRepository.findReviewAuthorsByIdIn(userIds).forEach(author -> authors.put(author.getId(), author));
+            views.forEach(view -> view.setAuthor(authors.get(view.getUserId())));
+        }
+        return new CursorSlice<>(views, PageRequest.of(0, size, sort), nextCursor);
+    }
+
+    private static ReviewView toView(ProductReview review, Long productId, Long userId) {
+        return new ReviewView(review.getId(), productId, userId, review.getRating(), review.getComment(),
+                review.getIsVerifiedPurchase(), review.getHelpfulCount(), review.getNotHelpfulCount(),
+                review.getHelpfulnessScore(), review.getCreatedAt());
+    }
+}
@@ -1,18 +1,54 @@
 package com.hasoftware.ustore.backend.service;
 
+import com.hasoftware.ustore.backend.dto.CursorSlice;
+import com.hasoftware.ustore.backend.dto.FacetValue;
+import com.hasoftware.ustore.backend.dto.ProductCursor;
+import com.hasoftware.ustore.backend.dto.ProductDetail;
+import com.hasoftware.ustore.backend.dto.ProductFacets;
+import com.hasoftware.ustore.backend.dto.ProductFilter;
+import com.hasoftware.ustore.backend.dto.ProductImageView;
+import com.hasoftware.ustore.backend.dto.ProductSummary;
+import com.hasoftware.ustore.backend.dto.Suggestion;
 import com.hasoftware.ustore.backend.entity.Category;
 import com.hasoftware.ustore.backend.entity.Product;
+import com.hasoftware.ustore.backend.event.ProductChangedEvent;
 import com.hasoftware.ustore.backend.repository.CategoryRepository;
+import com.hasoftware.ustore.backend.repository.ProductImageRepository;
+import com.hasoftware.ustore.backend.repository.ProductListing;
 import com.hasoftware.ustore.backend.repository.ProductRepository;
-import com.hasoftware.ustore.backend.repository.ProductReviewRepository;
+import com.hasoftware.ustore.backend.search.FacetCounts;
+import com.hasoftware.ustore.backend.search.IndexPage;
+import com.hasoftware.ustore.backend.search.ProductAttributeIndex;
+import com.hasoftware.ustore.backend.search.ProductAttributeIndex.Flag;
+import com.hasoftware.ustore.backend.search.ProductIndexer;
+import com.hasoftware.ustore.backend.search.ProductLeaderboards;
+import com.hasoftware.ustore.backend.search.ProductLeaderboards.Metric;
+import com.hasoftware.ustore.backend.search.ProductSearchIndex;
+import com.hasoftware.ustore.backend.search.ProductSimilarityIndex;
+import com.hasoftware.ustore.backend.search.ProductSuggester;
+import com.hasoftware.ustore.backend.search.StockAlertIndex;
+import com.hasoftware.ustore.backend.search.StockAlertIndex.Level;
+import com.hasoftware.ustore.backend.search.SuggestionTrie;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -25,7 +61,37 @@ public class ProductService {
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ProductReviewRepository productReviewRepository;
+    private ProductImageRepository productImageRepository;
+
+    @Autowired
+    private ProductViewCounter productViewCounter;
+
+    @Autowired
+    private ProductDetailCache productDetailCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductIndexer productIndexer;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductSuggester productSuggester;
+
+    @Autowired
+    private ProductAttributeIndex productAttributeIndex;
+
+    @Autowired
+    private ProductSimilarityIndex productSimilarityIndex;
+
+    @Autowired
+    private ProductLeaderboards productLeaderboards;
+
+    @Autowired
+    private StockAlertIndex stockAlertIndex;
 
     public Product createProduct(Product product) {
         // Check if SKU already exists
@@ -40,7 +106,9 @@ public class ProductService {
             product.setCategory(category);
         }
 
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct.getId()));
+        return savedProduct;
     }
 
     public Product updateProduct(Long productId, Product productDetails) {
@@ -115,120 +183,242 @@ public class ProductService {
             product.setCategory(category);
         }
 
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+        return savedProduct;
     }
 
+    @Transactional(readOnly = true)
     public Product getProductById(Long productId) {
-        Product product = productRepository.findById(productId)
+        return productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
+    }
 
-        // Increment view count
-        product.setViewCount(product.getViewCount() + 1);
-        return productRepository.save(product);
+    // No transaction is opened here so a cache hit never acquires a connection
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ProductDetail getProductDetail(Long productId) {
+        return productDetailCache.get(productId, this::loadProductDetail);
     }
 
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable);
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ProductDetail viewProduct(Long productId) {
+        ProductDetail detail = getProductDetail(productId);
+
+        // Views are buffered in memory and flushed in batches instead of updating the row per read
+        productViewCounter.recordView(productId);
+        return detail;
+    }
+
+    // A view answered with 304 Not Modified still counts
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public void recordView(Long productId) {
+        productViewCounter.recordView(productId);
     }
 
-    public Page<Product> getActiveProducts(Pageable pageable) {
-        return productRepository.findByIsActiveTrue(pageable);
+    public Page<ProductSummary> getAllProducts(Pageable pageable) {
+        return withPrimaryImages(productRepository.findAllSummaries(pageable));
     }
 
-    public Page<Product> getProductsByCategory(Long categoryId, Pageable pageable) {
-        return productRepository.findByCategoryIdAndIsActiveTrue(categoryId, pageable);
+    public Page<ProductSummary> getActiveProducts(Pageable pageable) {
+        if (canUseAttributeIndex(pageable)) {
+            return toPage(productAttributeIndex.filter(new ProductFilter(), pageable), pageable);
+        }
+        return withPrimaryImages(productRepository.findByIsActiveTrue(pageable));
+    }
+
+    public Page<ProductSummary> getProductsByCategory(Long categoryId, Pageable pageable) {
+        if (canUseAttributeIndex(pageable)) {
+            ProductFilter filter = new ProductFilter();
+            filter.setCategoryId(categoryId);
+            return toPage(productAttributeIndex.filter(filter, pageable), pageable);
+        }
+        return withPrimaryImages(productRepository.findByCategoryIdAndIsActiveTrue(categoryId, pageable));
     }
 
-    public Page<Product> getProductsByBrand(String brand, Pageable pageable) {
-        return productRepository.findByBrandAndIsActiveTrue(brand, pageable);
+    public Page<ProductSummary> getProductsByBrand(String brand, Pageable pageable) {
+        if (canUseAttributeIndex(pageable)) {
+            ProductFilter filter = new ProductFilter();
+            filter.setBrand(brand);
+            return toPage(productAttributeIndex.filter(filter, pageable), pageable);
+        }
+        return withPrimaryImages(productRepository.findByBrandAndIsActiveTrue(brand, pageable));
     }
 
-    public Page<Product> getFeaturedProducts(Pageable pageable) {
-        return productRepository.findByIsFeaturedTrueAndIsActiveTrue(pageable);
+    public Page<ProductSummary> getFeaturedProducts(Pageable pageable) {
+        if (canUseAttributeIndex(pageable)) {
+            return toPage(productAttributeIndex.flagged(Flag.FEATURED, pageable), pageable);
+        }
+        return withPrimaryImages(productRepository.findByIsFeaturedTrueAndIsActiveTrue(pageable));
     }
 
-    public Page<Product> getNewProducts(Pageable pageable) {
-        return productRepository.findByIsNewTrueAndIsActiveTrue(pageable);
+    public Page<ProductSummary> getNewProducts(Pageable pageable) {
+        if (canUseAttributeIndex(pageable)) {
+            return toPage(productAttributeIndex.flagged(Flag.NEW, pageable), pageable);
+        }
+        return withPrimaryImages(productRepository.findByIsNewTrueAndIsActiveTrue(pageable));
     }
 
-    public Page<Product> searchProducts(String keyword, Pageable pageable) {
-        return productRepository.searchProducts(keyword, pageable);
+    public Page<ProductSummary> searchProducts(String keyword, Pageable pageable) {
+        if (!productIndexer.isReady()) {
+            return withPrimaryImages(productRepository.searchProducts(keyword, pageable));
+        }
+
+        // Ranked ids come from the in-memory index; only the requested page is read from the database
+        return toPage(productSearchIndex.search(keyword), pageable);
     }
 
-    public Page<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
-        return productRepository.findByPriceRange(minPrice, maxPrice, pageable);
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return productSuggester.suggest(prefix, Math.max(1, Math.min(limit, SuggestionTrie.MAX_RESULTS)));
     }
 
-    public Page<Product> getProductsByMinRating(Double minRating, Pageable pageable) {
-        return productRepository.findByMinRating(minRating, pageable);
+    public Page<ProductSummary> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        return withPrimaryImages(productRepository.findByPriceRange(minPrice, maxPrice, pageable));
     }
 
-    public Page<Product> getDiscountedProducts(Pageable pageable) {
-        return productRepository.findDiscountedProducts(pageable);
+    public Page<ProductSummary> getProductsByMinRating(Double minRating, Pageable pageable) {
+        return withPrimaryImages(productRepository.findByMinRating(minRating, pageable));
     }
 
-    public Page<Product> getInStockProducts(Pageable pageable) {
-        return productRepository.findInStockProducts(pageable);
+    public Page<ProductSummary> getDiscountedProducts(Pageable pageable) {
+        if (canUseAttributeIndex(pageable)) {
+            return toPage(productAttributeIndex.flagged(Flag.DISCOUNTED, pageable), pageable);
+        }
+        return withPrimaryImages(productRepository.findDiscountedProducts(pageable));
     }
 
-    public List<Product> getLowStockProducts() {
-        return productRepository.findLowStockProducts();
+    public Page<ProductSummary> getInStockProducts(Pageable pageable) {
+        if (canUseAttributeIndex(pageable)) {
+            return toPage(productAttributeIndex.flagged(Flag.IN_STOCK, pageable), pageable);
+        }
+        return withPrimaryImages(productRepository.findInStockProducts(pageable));
     }
 
-    public List<Product> getOutOfStockProducts() {
-        return productRepository.findOutOfStockProducts();
+    // Most urgent first: lowest quantity for low stock, id order for out of stock
+    public Page<ProductSummary> getLowStockProducts(Pageable pageable) {
+        if (!productIndexer.isReady()) {
+            return withPrimaryImages(productRepository.findLowStockProducts(unsorted(pageable)));
+        }
+        return toAlertPage(Level.LOW_STOCK, pageable);
     }
 
-    public Page<Product> getSimilarProducts(Long productId, Pageable pageable) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+    public Page<ProductSummary> getOutOfStockProducts(Pageable pageable) {
+        if (!productIndexer.isReady()) {
+            return withPrimaryImages(productRepository.findOutOfStockProducts(unsorted(pageable)));
+        }
+        return toAlertPage(Level.OUT_OF_STOCK, pageable);
+    }
 
-        if (product.getCategory() == null) {
+    public Page<ProductSummary> getSimilarProducts(Long productId, Pageable pageable) {
+        if (!productIndexer.isReady()) {
             return Page.empty();
         }
 
-        // Get similar products from the same category, excluding current product
-        // For now, return empty page as findSimilarProducts needs to be implemented
-        // properly
-        return Page.empty();
+        // Inactive products have no neighbours; only a missing product is an error
+        if (!productSimilarityIndex.contains(productId) && !productRepository.existsById(productId)) {
+            throw new RuntimeException("Product not found");
+        }
+        return toPage(productSimilarityIndex.getSimilar(productId), pageable);
     }
 
-    public Page<Product> getBestSellingProducts(Pageable pageable) {
-        return productRepository.findBestSellingProducts(pageable);
+    public Page<ProductSummary> getBestSellingProducts(Pageable pageable) {
+        return getBestSellingProducts(null, pageable);
     }
 
-    public Page<Product> getMostViewedProducts(Pageable pageable) {
-        return productRepository.findMostViewedProducts(pageable);
+    public Page<ProductSummary> getBestSellingProducts(Long categoryId, Pageable pageable) {
+        if (canUseLeaderboard(pageable)) {
+            return toLeaderboardPage(Metric.SOLD, categoryId, pageable);
+        }
+        return withPrimaryImages(categoryId != null
+                ? productRepository.findBestSellingProductsByCategory(categoryId, pageable)
+                : productRepository.findBestSellingProducts(pageable));
     }
 
-    public Page<Product> getProductsWithFilters(Long categoryId, String brand, BigDecimal minPrice,
+    public Page<ProductSummary> getMostViewedProducts(Pageable pageable) {
+        return getMostViewedProducts(null, pageable);
+    }
+
+    public Page<ProductSummary> getMostViewedProducts(Long categoryId, Pageable pageable) {
+        if (canUseLeaderboard(pageable)) {
+            return toLeaderboardPage(Metric.VIEWED, categoryId, pageable);
+        }
+        return withPrimaryImages(categoryId != null
+                ? productRepository.findMostViewedProductsByCategory(categoryId, pageable)
+                : productRepository.findMostViewedProducts(pageable));
+    }
+
+    public Page<ProductSummary> getProductsWithFilters(Long categoryId, String brand, BigDecimal minPrice,
             BigDecimal maxPrice, Double minRating, Boolean inStock,
             Pageable pageable) {
-        return productRepository.findProductsWithFilters(categoryId, brand, minPrice, maxPrice,
-                minRating, inStock, pageable);
+        if (canUseAttributeIndex(pageable)) {
+            // Candidate ids come from bitmap intersections; only the requested page is read from the database
+            ProductFilter filter = new ProductFilter(null, categoryId, brand, minPrice, maxPrice, minRating, inStock);
+            return toPage(productAttributeIndex.filter(filter, pageable), pageable);
+        }
+        return withPrimaryImages(productRepository.findProductsWithFilters(categoryId, brand, minPrice, maxPrice,
+                minRating, inStock, pageable));
     }
 
-    public void updateProductRating(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+    public ProductFacets getProductFacets(ProductFilter filter, Pageable pageable) {
+        ProductFacets facets = new ProductFacets();
+        if (!productIndexer.isReady()) {
+            // Facet counts need the attribute index; until it is built only the products are served
+            facets.setProducts(filter.getKeyword() != null
+                    ? searchProducts(filter.getKeyword(), pageable)
+                    : getProductsWithFilters(filter.getCategoryId(), filter.getBrand(), filter.getMinPrice(),
+                            filter.getMaxPrice(), filter.getMinRating(), filter.getInStock(), pageable));
+            return facets;
+        }
 
-        Double averageRating = productReviewRepository.calculateAverageRating(productId);
-        Long reviewCount = productReviewRepository.countByProductId(productId);
+        List<Long> candidates = filter.getKeyword() != null ? productSearchIndex.search(filter.getKeyword()) : null;
+        FacetCounts counts = productAttributeIndex.evaluate(filter, candidates, pageable);
+        facets.setProducts(toPage(counts.getProducts(), pageable));
+
+        counts.getBrands().forEach((brand, count) -> facets.getBrands().add(new FacetValue(brand, brand, count)));
+        counts.getCategories().forEach((categoryId, count) -> facets.getCategories()
+                .add(new FacetValue(categoryId.toString(), counts.getCategoryNames().get(categoryId), count)));
+        facets.getBrands().sort(Comparator.comparing(FacetValue::getCount).reversed()
+                .thenComparing(FacetValue::getLabel));
+        facets.getCategories().sort(Comparator.comparing(FacetValue::getCount).reversed()
+                .thenComparing(FacetValue::getLabel, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        // Bucket i covers [bounds[i - 1], bounds[i]); the first and last are open-ended
+        BigDecimal[] bounds = productAttributeIndex.getPriceBucketBounds();
+        long[] priceBuckets = counts.getPriceBuckets();
+        for (int i = 0; i < priceBuckets.length; i++) {
+            String from = i > 0 ? bounds[i - 1].stripTrailingZeros().toPlainString() : "";
+            String to = i < bounds.length ? bounds[i].stripTrailingZeros().toPlainString() : "";
+            String label = i == 0 ? "< " + to : i == bounds.length ? from + "+" : from + " - " + to;
+            facets.getPriceRanges().add(new FacetValue(from + "-" + to, label, priceBuckets[i]));
+        }
 
-        product.setRating(averageRating != null ? averageRating : 0.0);
-        product.setReviewCount(reviewCount.intValue());
+        long[] ratingsAtLeast = counts.getRatingsAtLeast();
+        for (int floor = ratingsAtLeast.length - 1; floor >= 1; floor--) {
+            facets.getRatings().add(new FacetValue(String.valueOf(floor), floor + "+", ratingsAtLeast[floor]));
+        }
 
-        productRepository.save(product);
+        facets.getAvailability().add(new FacetValue("true", "In stock", counts.getInStock()));
+        facets.getAvailability().add(new FacetValue("false", "Out of stock", counts.getOutOfStock()));
+        return facets;
     }
 
-    public void updateStockQuantity(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-
-        product.setStockQuantity(product.getStockQuantity() - quantity);
-        product.setSoldCount(product.getSoldCount() + quantity);
+    // Review writes keep the rating current; this rebuilds it from the reviews when it has drifted
+    public void updateProductRating(Long productId) {
+        if (productRepository.recountRatings(productId, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Product not found");
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+    }
 
-        productRepository.save(product);
+    public void updateStockQuantity(Long productId, Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Quantity must be greater than 0");
+        }
+        if (productRepository.sellStock(productId, quantity, LocalDateTime.now()) == 0) {
+            throw new RuntimeException(productRepository.existsById(productId)
+                    ? "Insufficient stock" : "Product not found");
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
     }
 
     public void deleteProduct(Long productId) {
@@ -236,9 +426,155 @@ public class ProductService {
             throw new RuntimeException("Product not found");
         }
         productRepository.deleteById(productId);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
     }
 
     public boolean existsBySku(String sku) {
         return productRepository.existsBySku(sku);
     }
+
+    private ProductDetail loadProductDetail(Long productId) {
+        ProductDetail detail = productRepository.findDetailById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        detail.setImages(productImageRepository.findViewsByProductIdIn(List.of(productId)));
+        return detail;
+    }
+
+    // Keyset pagination: reads size + 1 rows after the cursor to learn whether there is a next slice
+    @Transactional(readOnly = true)
+    public Slice<ProductSummary> scrollProducts(ProductListing listing, Map<String, Object> parameters,
+            String cursor, Pageable pageable) {
+        Sort.Order order = scrollOrder(pageable.getSort(), listing.getDefaultOrder());
+        ProductCursor after = decodeCursor(cursor, order);
+        List<ProductSummary> rows = productRepository.findSummariesAfter(listing, parameters, order, after,
+                pageable.getPageSize() + 1);
+        return toSlice(rows, order, pageable.getPageSize());
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<ProductSummary> scrollProductsWithFilters(ProductFilter filter, String cursor, Pageable pageable) {
+        Sort.Order order = scrollOrder(pageable.getSort(), Sort.Order.asc("id"));
+        ProductCursor after = decodeCursor(cursor, order);
+        List<ProductSummary> rows = productRepository.findFilteredSummariesAfter(filter, order, after,
+                pageable.getPageSize() + 1);
+        return toSlice(rows, order, pageable.getPageSize());
+    }
+
+    private Sort.Order scrollOrder(Sort sort, Sort.Order defaultOrder) {
+        if (sort.isUnsorted()) {
+            return defaultOrder;
+        }
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() > 1 || !ProductCursor.isSortable(orders.get(0).getProperty())) {
+            throw new RuntimeException("Unsupported sort for cursor pagination: " + sort);
+        }
+        return orders.get(0);
+    }
+
+    // An empty cursor starts from the beginning
+    private ProductCursor decodeCursor(String cursor, Sort.Order order) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        ProductCursor after = ProductCursor.decode(cursor);
+        if (!after.matches(order)) {
+            throw new RuntimeException("Cursor does not match the requested sort");
+        }
+        return after;
+    }
+
+    private Slice<ProductSummary> toSlice(List<ProductSummary> rows, Sort.Order order, int size) {
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = new ArrayList<>(rows.subList(0, size));
+            nextCursor = ProductCursor.after(rows.get(size - 1), order).encode();
+        }
+        return new CursorSlice<>(withPrimaryImages(rows), PageRequest.of(0, size, Sort.by(order)), nextCursor);
+    }
+
+    // Pages within the leaderboard size in its own order; deeper pages and other sorts go to the database
+    private boolean canUseLeaderboard(Pageable pageable) {
+        return productLeaderboards.isReady() && pageable.isPaged() && pageable.getSort().isUnsorted()
+                && pageable.getOffset() + pageable.getPageSize() <= productLeaderboards.getCapacity();
+    }
+
+    private Page<ProductSummary> toLeaderboardPage(Metric metric, Long categoryId, Pageable pageable) {
+        int from = (int) pageable.getOffset();
+        List<Long> top = productLeaderboards.top(metric, categoryId, from + pageable.getPageSize());
+        List<Long> pageIds = top.subList(Math.min(from, top.size()), top.size());
+        return new PageImpl<>(getSummariesInOrder(pageIds), pageable, productLeaderboards.count(categoryId));
+    }
+
+    // Sorts the index cannot reproduce, and requests before its first build, go to the database
+    private boolean canUseAttributeIndex(Pageable pageable) {
+        return productIndexer.isReady() && ProductAttributeIndex.supportsSort(pageable.getSort());
+    }
+
+    private Page<ProductSummary> toAlertPage(Level level, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return toPage(stockAlertIndex.getProductIds(level, 0, Integer.MAX_VALUE), pageable);
+        }
+        List<Long> productIds = stockAlertIndex.getProductIds(level, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(getSummariesInOrder(productIds), pageable, stockAlertIndex.count(level));
+    }
+
+    private static Pageable unsorted(Pageable pageable) {
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()) : pageable;
+    }
+
+    private Page<ProductSummary> toPage(List<Long> productIds, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(getSummariesInOrder(productIds));
+        }
+        int from = (int) Math.min(pageable.getOffset(), productIds.size());
+        int to = Math.min(from + pageable.getPageSize(), productIds.size());
+        return new PageImpl<>(getSummariesInOrder(productIds.subList(from, to)), pageable, productIds.size());
+    }
+
+    // The index has already cut the page out of the matches
+    private Page<ProductSummary> toPage(IndexPage page, Pageable pageable) {
+        List<ProductSummary> summaries = getSummariesInOrder(page.getProductIds());
+        return pageable.isUnpaged() ? new PageImpl<>(summaries) : new PageImpl<>(summaries, pageable, page.getTotal());
+    }
+
+    // Loads summaries for the given ids, keeping the order of the ids
+    private List<ProductSummary> getSummariesInOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, ProductSummary> byId = new HashMap<>();
+        for (ProductSummary summary : productRepository.findSummariesByIdIn(productIds)) {
+            byId.put(summary.getId(), summary);
+        }
+        List<ProductSummary> summaries = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            ProductSummary summary = byId.get(productId);
+            if (summary != null) {
+                summaries.add(summary);
+            }
+        }
+        return withPrimaryImages(summaries);
+    }
+
+    private Page<ProductSummary> withPrimaryImages(Page<ProductSummary> page) {
+        withPrimaryImages(page.getContent());
+        return page;
+    }
+
+    // Resolves the primary image of every product on the page with a single query
+    private List<ProductSummary> withPrimaryImages(List<ProductSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+
+        List<Long> productIds = summaries.stream().map(ProductSummary::getId).collect(Collectors.toList());
+        Map<Long, String> primaryImages = new HashMap<>();
+        for (ProductImageView image : productImageRepository.findViewsByProductIdIn(productIds)) {
+            // Images are ordered primary first, so the first one seen per product wins
+            primaryImages.putIfAbsent(image.getProductId(), image.getImageUrl());
+        }
+        summaries.forEach(summary -> summary.setPrimaryImageUrl(primaryImages.get(summary.getId())));
+        return summaries;
+    }
 }
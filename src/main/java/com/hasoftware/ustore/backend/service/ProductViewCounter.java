@@ -0,0 +1,120 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.hasoftware.ustore.backend.search.ProductLeaderboards;
+import com.hasoftware.ustore.backend.search.ProductSuggester;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Component
+public class ProductViewCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductViewCounter.class);
+
+    // updated_at = updated_at keeps MySQL's ON UPDATE CURRENT_TIMESTAMP from treating a view as a modification
+    private static final String FLUSH_SQL = "UPDATE products SET view_count = view_count + ?, updated_at = updated_at WHERE id = ?";
+
+    private final DeltaAccumulator<Long> pendingViews = new DeltaAccumulator<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProductLeaderboards productLeaderboards;
+
+    @Autowired
+    private ProductSuggester productSuggester;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${product.view-counter.batch-size:500}")
+    private int batchSize;
+
+    private Counter flushedViews;
+
+    private Counter failedFlushes;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("ustore.product.views.pending", pendingViews, DeltaAccumulator::pendingTotal)
+                .description("Views recorded in memory and not yet written to products.view_count")
+                .register(meterRegistry);
+        Gauge.builder("ustore.product.views.pending.products", pendingViews, DeltaAccumulator::pendingKeys)
+                .description("Products with unflushed view deltas")
+                .register(meterRegistry);
+        flushedViews = Counter.builder("ustore.product.views.flushed")
+                .description("Views written to the database")
+                .register(meterRegistry);
+        failedFlushes = Counter.builder("ustore.product.views.flush.failures")
+                .register(meterRegistry);
+    }
+
+    public void recordView(Long productId) {
+        pendingViews.add(productId, 1);
+    }
+
+    public long getPendingViews(Long productId) {
+        return pendingViews.pending(productId);
+    }
+
+    @Scheduled(fixedDelayString = "${product.view-counter.flush-interval:5000}")
+    public void flush() {
+        // Sorted by id so concurrent flushes from several nodes lock rows in the same order
+        Map<Long, Long> deltas = new TreeMap<>(pendingViews.drain());
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+            batch.add(new Object[] { entry.getValue(), entry.getKey() });
+            total += entry.getValue();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batch, batchSize,
+                    (ps, args) -> {
+                        ps.setLong(1, (Long) args[0]);
+                        ps.setLong(2, (Long) args[1]);
+                    }));
+            flushedViews.increment(total);
+            productLeaderboards.addViews(deltas);
+            productSuggester.addViews(deltas);
+            catalogVersion.countersFlushed();
+        } catch (DataAccessException e) {
+            // Put the deltas back so they are retried on the next flush
+            pendingViews.addAll(deltas);
+            failedFlushes.increment();
+            logger.warn("Failed to flush {} product view deltas: {}", deltas.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,95 @@
+package com.hasoftware.ustore.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Checks the rating histograms on products against product_reviews, one range of product
+// ids at a time, and rebuilds the ones that drifted (reviews removed by a user deletion
+// cascade, manual SQL). Each batch is one grouped scan of the reviews in its id range.
+@Component
+public class RatingReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingReconciler.class);
+
+    private static final String DRIFTED_SQL = "SELECT p.id FROM products p LEFT JOIN (" +
+            "SELECT product_id, SUM(rating) AS rating_sum, " +
+            "SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END) AS rating_1, " +
+            "SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END) AS rating_2, " +
+            "SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END) AS rating_3, " +
+            "SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END) AS rating_4, " +
+            "SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END) AS rating_5 " +
+            "FROM product_reviews WHERE product_id > ? AND product_id <= ? GROUP BY product_id) r " +
+            "ON r.product_id = p.id WHERE p.id > ? AND p.id <= ? AND (" +
+            "p.rating_sum <> COALESCE(r.rating_sum, 0) OR p.rating_1 <> COALESCE(r.rating_1, 0) OR " +
+            "p.rating_2 <> COALESCE(r.rating_2, 0) OR p.rating_3 <> COALESCE(r.rating_3, 0) OR " +
+            "p.rating_4 <> COALESCE(r.rating_4, 0) OR p.rating_5 <> COALESCE(r.rating_5, 0))";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.rating.reconcile-batch-size:500}")
+    private int batchSize;
+
+    private Counter rebuiltProducts;
+
+    @PostConstruct
+    public void registerMetrics() {
+        rebuiltProducts = Counter.builder("ustore.product.rating.reconciled")
+                .description("Products whose rating statistics had drifted from their reviews")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${product.rating.reconcile-interval:3600000}",
+            initialDelayString = "${product.rating.reconcile-initial-delay:60000}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        long lastId = 0;
+        int checked = 0;
+        int rebuilt = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM products WHERE id > ? ORDER BY id LIMIT ?",
+                    Long.class, lastId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            long upperId = ids.get(ids.size() - 1);
+            for (Long productId : jdbcTemplate.queryForList(DRIFTED_SQL, Long.class, lastId, upperId, lastId,
+                    upperId)) {
+                try {
+                    productService.updateProductRating(productId);
+                    rebuilt++;
+                } catch (RuntimeException e) {
+                    // Usually deleted since the check; the next run looks again
+                    logger.warn("Failed to rebuild rating statistics of product {}: {}", productId, e.getMessage());
+                }
+            }
+            checked += ids.size();
+            lastId = upperId;
+        }
+
+        rebuiltProducts.increment(rebuilt);
+        if (rebuilt > 0) {
+            logger.warn("Rebuilt rating statistics of {} of {} products in {} ms", rebuilt, checked,
+                    System.currentTimeMillis() - start);
+        } else {
+            logger.info("Rating statistics of {} products match their reviews ({} ms)", checked,
+                    System.currentTimeMillis() - start);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hasoftware.ustore.backend.dto.ReviewSummary;
+import com.hasoftware.ustore.backend.event.ProductChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// Per-node cache of review summaries. Entries are shared between requests and must not be modified.
+@Component
+public class ReviewSummaryCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.review-summary-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${product.review-summary-cache.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    private Cache<Long, ReviewSummary> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "reviewSummary");
+    }
+
+    public ReviewSummary get(Long productId, Function<Long, ReviewSummary> loader) {
+        return cache.get(productId, loader);
+    }
+
+    // Review writes publish a product change; after commit, so the next read loads the new counters
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache.invalidateAll(event.getProductIds());
+    }
+}
@@ -0,0 +1,279 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Helpful / not helpful votes are taken in memory and written behind. Each review's voters
+// are loaded once into a map that dedupes per user; a vote only changes that map, queues
+// the vote row and moves striped counters. The flush upserts the rows and applies the
+// counter deltas in one transaction, so helpful_count (and the helpfulness order) lags
+// by at most one flush interval. Votes accepted after the last flush are lost with the
+// node, and dedupe is per node: a user voting on two nodes at once can be counted twice.
+@Service
+public class ReviewVoteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewVoteService.class);
+
+    private static final String VOTE_SQL = "INSERT INTO review_votes (review_id, user_id, helpful) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE helpful = VALUES(helpful)";
+
+    private static final String COUNTS_SQL = "UPDATE product_reviews SET helpful_count = helpful_count + ?, " +
+            "not_helpful_count = not_helpful_count + ?, helpfulness_score = helpfulness_score + ? WHERE id = ?";
+
+    private static final class VoteKey {
+        private final Long reviewId;
+        private final Long userId;
+
+        private VoteKey(Long reviewId, Long userId) {
+            this.reviewId = reviewId;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof VoteKey && reviewId.equals(((VoteKey) other).reviewId)
+                    && userId.equals(((VoteKey) other).userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * reviewId.hashCode() + userId.hashCode();
+        }
+    }
+
+    private static final class ReviewVoters {
+        private final Long productId;
+        private final Long authorId;
+        private final Map<Long, Boolean> votes = new ConcurrentHashMap<>();
+
+        private ReviewVoters(Long productId, Long authorId) {
+            this.productId = productId;
+            this.authorId = authorId;
+        }
+    }
+
+    // Latest vote of each user not yet written; a newer vote replaces the queued one
+    private final Map<VoteKey, Boolean> pendingVotes = new ConcurrentHashMap<>();
+
+    // Votes taken by the running flush, until its transaction has committed
+    private volatile Map<VoteKey, Boolean> flushingVotes = Map.of();
+
+    private final DeltaAccumulator<Long> helpfulDeltas = new DeltaAccumulator<>();
+
+    private final DeltaAccumulator<Long> notHelpfulDeltas = new DeltaAccumulator<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.review-votes.batch-size:500}")
+    private int batchSize;
+
+    @Value("${product.review-votes.voter-cache-size:10000}")
+    private long voterCacheSize;
+
+    @Value("${product.review-votes.voter-cache-expire-after-access:30m}")
+    private Duration voterCacheExpireAfterAccess;
+
+    private Cache<Long, ReviewVoters> voters;
+
+    private Counter flushedVotes;
+
+    private Counter failedFlushes;
+
+    @PostConstruct
+    public void init() {
+        voters = Caffeine.newBuilder()
+                .maximumSize(voterCacheSize)
+                .expireAfterAccess(voterCacheExpireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, voters, "reviewVoters");
+        Gauge.builder("ustore.review.votes.pending", pendingVotes, Map::size)
+                .description("Review votes recorded in memory and not yet written to review_votes")
+                .register(meterRegistry);
+        flushedVotes = Counter.builder("ustore.review.votes.flushed")
+                .description("Review votes written to the database")
+                .register(meterRegistry);
+        failedFlushes = Counter.builder("ustore.review.votes.flush.failures")
+                .register(meterRegistry);
+    }
+
+    // True when the vote changed something; repeating the current vote is a no-op
+    public boolean vote(Long productId, Long reviewId, Long userId, Boolean helpful) {
+        if (helpful == null) {
+            throw new RuntimeException("Vote must say whether the review was helpful");
+        }
+        ReviewVoters review = voters.get(reviewId, this::loadVoters);
+        if (!review.productId.equals(productId)) {
+            throw new RuntimeException("Review not found");
+        }
+        if (review.authorId.equals(userId)) {
+            throw new RuntimeException("You cannot vote on your own review");
+        }
+
+        boolean[] changed = { false };
+        review.votes.compute(userId, (user, previous) -> {
+            if (helpful.equals(previous)) {
+                return previous;
+            }
+            pendingVotes.put(new VoteKey(reviewId, userId), helpful);
+            if (previous != null) {
+                (previous ? helpfulDeltas : notHelpfulDeltas).add(reviewId, -1);
+            }
+            (helpful ? helpfulDeltas : notHelpfulDeltas).add(reviewId, 1);
+            changed[0] = true;
+            return helpful;
+        });
+        return changed[0];
+    }
+
+    // Queued votes of a deleted review are dropped by the next flush
+    public void reviewDeleted(Long reviewId) {
+        voters.invalidate(reviewId);
+    }
+
+    @Scheduled(fixedDelayString = "${product.review-votes.flush-interval:5000}")
+    public synchronized void flush() {
+        // Each vote is visible to loaders as flushing before it leaves the queue
+        Map<VoteKey, Boolean> drained = new ConcurrentHashMap<>();
+        flushingVotes = drained;
+        pendingVotes.forEach((key, helpful) -> {
+            drained.put(key, helpful);
+            // A vote replaced meanwhile stays queued for the next flush
+            if (!pendingVotes.remove(key, helpful)) {
+                drained.remove(key, helpful);
+            }
+        });
+        Map<Long, Long> helpful = helpfulDeltas.drain();
+        Map<Long, Long> notHelpful = notHelpfulDeltas.drain();
+        if (drained.isEmpty() && helpful.isEmpty() && notHelpful.isEmpty()) {
+            flushingVotes = Map.of();
+            return;
+        }
+
+        // Sorted by id so concurrent flushes from several nodes lock rows in the same order
+        Map<Long, long[]> deltas = new TreeMap<>();
+        helpful.forEach((reviewId, delta) -> deltas.computeIfAbsent(reviewId, id -> new long[2])[0] = delta);
+        notHelpful.forEach((reviewId, delta) -> deltas.computeIfAbsent(reviewId, id -> new long[2])[1] = delta);
+        List<Object[]> countBatch = new ArrayList<>(deltas.size());
+        deltas.forEach((reviewId, delta) -> countBatch.add(new Object[] { delta[0], delta[1], delta[0] - delta[1],
+                reviewId }));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Object[]> voteBatch = voteBatch(drained);
+                jdbcTemplate.batchUpdate(VOTE_SQL, voteBatch, batchSize, (ps, args) -> {
+                    ps.setLong(1, (Long) args[0]);
+                    ps.setLong(2, (Long) args[1]);
+                    ps.setBoolean(3, (Boolean) args[2]);
+                });
+                jdbcTemplate.batchUpdate(COUNTS_SQL, countBatch, batchSize, (ps, args) -> {
+                    ps.setLong(1, (Long) args[0]);
+                    ps.setLong(2, (Long) args[1]);
+                    ps.setLong(3, (Long) args[2]);
+                    ps.setLong(4, (Long) args[3]);
+                });
+            });
+            flushedVotes.increment(drained.size());
+        } catch (DataAccessException e) {
+            // Put everything back so it is retried on the next flush; votes taken meanwhile are newer
+            drained.forEach(pendingVotes::putIfAbsent);
+            helpfulDeltas.addAll(helpful);
+            notHelpfulDeltas.addAll(notHelpful);
+            failedFlushes.increment();
+            logger.warn("Failed to flush {} review votes: {}", drained.size(), e.getMessage());
+        } finally {
+            flushingVotes = Map.of();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Votes on reviews deleted since they were taken are left out, the foreign key would reject them
+    private List<Object[]> voteBatch(Map<VoteKey, Boolean> votes) {
+        if (votes.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> reviewIds = new HashSet<>();
+        votes.keySet().forEach(key -> reviewIds.add(key.reviewId));
+        Set<Long> existing = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT id FROM product_reviews WHERE id IN (:ids)", Map.of("ids", reviewIds), Long.class));
+
+        List<Object[]> batch = new ArrayList<>(votes.size());
+        votes.forEach((key, helpful) -> {
+            if (existing.contains(key.reviewId)) {
+                batch.add(new Object[] { key.reviewId, key.userId, helpful });
+            }
+        });
+        return batch;
+    }
+
+    private ReviewVoters loadVoters(Long reviewId) {
+        // Read in the order a flush moves votes (queued, flushing, table), so none is missed in between
+        Map<Long, Boolean> pending = votesOf(pendingVotes, reviewId);
+        Map<Long, Boolean> queued = votesOf(flushingVotes, reviewId);
+        queued.putAll(pending);
+
+        List<ReviewVoters> reviews = jdbcTemplate.query("SELECT product_id, user_id FROM product_reviews WHERE id = ?",
+                (resultSet, rowNum) -> new ReviewVoters(resultSet.getLong(1), resultSet.getLong(2)), reviewId);
+        if (reviews.isEmpty()) {
+            throw new RuntimeException("Review not found");
+        }
+        ReviewVoters review = reviews.get(0);
+        jdbcTemplate.query("SELECT user_id, helpful FROM review_votes WHERE review_id = ?", resultSet -> {
+            review.votes.put(resultSet.getLong(1), resultSet.getBoolean(2));
+        }, reviewId);
+        review.votes.putAll(queued);
+        // A failed flush puts its votes back in the queue after the first read; read it again so they are kept
+        review.votes.putAll(votesOf(pendingVotes, reviewId));
+        return review;
+    }
+
+    private static Map<Long, Boolean> votesOf(Map<VoteKey, Boolean> votes, Long reviewId) {
+        Map<Long, Boolean> byUser = new HashMap<>();
+        votes.forEach((key, helpful) -> {
+            if (key.reviewId.equals(reviewId)) {
+                byUser.put(key.userId, helpful);
+            }
+        });
+        return byUser;
+    }
+}
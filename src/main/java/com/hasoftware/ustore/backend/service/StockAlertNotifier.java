@@ -0,0 +1,95 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.hasoftware.ustore.backend.dto.StockTransition;
+import com.hasoftware.ustore.backend.event.StockLevelChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+// Pushes stock level transitions to connected admins over Server-Sent Events. Each
+// transition is a "stock-level" event; a change that moved more products than max-batch
+// (a bulk import, say) is sent as a single "resync" event telling clients to reload.
+@Component
+public class StockAlertNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockAlertNotifier.class);
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    @Qualifier("stockAlertExecutor")
+    private ThreadPoolTaskExecutor stockAlertExecutor;
+
+    @Value("${product.stock-alerts.stream-timeout:30m}")
+    private Duration streamTimeout;
+
+    @Value("${product.stock-alerts.max-batch:100}")
+    private int maxBatch;
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    @EventListener
+    public void onStockLevelChanged(StockLevelChangedEvent event) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        try {
+            stockAlertExecutor.execute(() -> send(event.getTransitions()));
+        } catch (TaskRejectedException e) {
+            logger.warn("Dropped {} stock level transitions, the alert queue is full", event.getTransitions().size());
+        }
+    }
+
+    // Keeps idle streams open through proxies that close silent connections
+    @Scheduled(fixedDelayString = "${product.stock-alerts.heartbeat-interval:30000}")
+    public void heartbeat() {
+        if (!emitters.isEmpty()) {
+            stockAlertExecutor.execute(() -> broadcast(() -> SseEmitter.event().comment("heartbeat")));
+        }
+    }
+
+    private void send(List<StockTransition> transitions) {
+        if (transitions.size() > maxBatch) {
+            broadcast(() -> SseEmitter.event().name("resync").data(transitions.size()));
+            return;
+        }
+        for (StockTransition transition : transitions) {
+            broadcast(() -> SseEmitter.event().name("stock-level").data(transition, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    // Builders are not reusable (building appends to them), hence one per stream
+    private void broadcast(Supplier<SseEventBuilder> event) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(event.get());
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the container completes the emitter
+                emitters.remove(emitter);
+            }
+        }
+    }
+}
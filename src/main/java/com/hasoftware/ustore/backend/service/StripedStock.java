@@ -0,0 +1,75 @@
+package com.hasoftware.ustore.backend.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Units of stock spread over several CAS counters, so that concurrent buyers of one
+// product mostly update different memory instead of all retrying on a single value.
+// A buyer starts at a random stripe and moves on when it is empty; the total can
+// never go below zero because every take is a compare-and-set on a non-negative stripe.
+public class StripedStock {
+
+    // Counters sit a cache line apart (8 longs) so that stripes do not share one
+    private static final int SPACING = 8;
+
+    private final AtomicLongArray counters;
+
+    private final int stripes;
+
+    public StripedStock(int stripes, long units) {
+        this.stripes = Math.max(1, stripes);
+        this.counters = new AtomicLongArray(this.stripes * SPACING);
+        for (int stripe = 0; stripe < this.stripes; stripe++) {
+            counters.set(stripe * SPACING, units / this.stripes + (stripe < units % this.stripes ? 1 : 0));
+        }
+    }
+
+    public boolean tryTake(long units) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            if (takeFrom((start + i) % stripes, units, false) == units) {
+                return true;
+            }
+        }
+        // No single stripe holds enough; gather from all of them, and give back a partial take
+        long taken = 0;
+        for (int i = 0; i < stripes && taken < units; i++) {
+            taken += takeFrom((start + i) % stripes, units - taken, true);
+        }
+        if (taken < units) {
+            put(taken);
+            return false;
+        }
+        return true;
+    }
+
+    public void put(long units) {
+        if (units > 0) {
+            counters.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * SPACING, units);
+        }
+    }
+
+    // A moment-in-time sum; exact only when no take is in flight
+    public long remaining() {
+        long remaining = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            remaining += counters.get(stripe * SPACING);
+        }
+        return remaining;
+    }
+
+    // Takes all requested units from the stripe, or with partial as many as it has
+    private long takeFrom(int stripe, long units, boolean partial) {
+        int index = stripe * SPACING;
+        while (true) {
+            long available = counters.get(index);
+            long take = Math.min(available, units);
+            if (take == 0 || (!partial && take < units)) {
+                return 0;
+            }
+            if (counters.compareAndSet(index, available, available - take)) {
+                return take;
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+-- Create flash_sales table
+-- The allocated units leave products.stock_quantity when the sale starts. Sold units are added
+-- to sold and to products.sold_count in one transaction, and allocated - sold goes back to
+-- stock_quantity when the sale ends, so the three columns always add up after a restart.
+CREATE TABLE flash_sales (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    allocated INT NOT NULL,
+    sold INT NOT NULL DEFAULT 0,
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+    ends_at TIMESTAMP(3) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE
+);
+
+-- Create indexes
+CREATE INDEX idx_flash_sales_product_status ON flash_sales(product_id, status);
+CREATE INDEX idx_flash_sales_status_ends ON flash_sales(status, ends_at);
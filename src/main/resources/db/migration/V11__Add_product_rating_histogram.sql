@@ -0,0 +1,24 @@
+-- Rating statistics kept alongside the product: the sum of all ratings and one counter per star.
+-- Review writes adjust them in the same transaction, so rating and review_count never need an
+-- aggregate over product_reviews.
+ALTER TABLE products ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN rating_1 INT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN rating_2 INT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN rating_3 INT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN rating_4 INT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN rating_5 INT NOT NULL DEFAULT 0;
+
+-- Backfill from existing reviews; products without reviews keep their rating and review_count
+UPDATE products SET
+    rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM product_reviews r WHERE r.product_id = products.id),
+    rating_1 = (SELECT COUNT(*) FROM product_reviews r WHERE r.product_id = products.id AND r.rating = 1),
+    rating_2 = (SELECT COUNT(*) FROM product_reviews r WHERE r.product_id = products.id AND r.rating = 2),
+    rating_3 = (SELECT COUNT(*) FROM product_reviews r WHERE r.product_id = products.id AND r.rating = 3),
+    rating_4 = (SELECT COUNT(*) FROM product_reviews r WHERE r.product_id = products.id AND r.rating = 4),
+    rating_5 = (SELECT COUNT(*) FROM product_reviews r WHERE r.product_id = products.id AND r.rating = 5)
+WHERE EXISTS (SELECT 1 FROM product_reviews r WHERE r.product_id = products.id);
+
+UPDATE products SET
+    review_count = rating_1 + rating_2 + rating_3 + rating_4 + rating_5,
+    rating = rating_sum * 1.0 / (rating_1 + rating_2 + rating_3 + rating_4 + rating_5)
+WHERE rating_1 + rating_2 + rating_3 + rating_4 + rating_5 > 0;
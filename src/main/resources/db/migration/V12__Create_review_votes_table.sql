@@ -0,0 +1,12 @@
+-- Create review_votes table
+-- One vote per user and review. Rows are written behind by the vote flush, which also
+-- moves product_reviews.helpful_count / not_helpful_count by the same deltas.
+CREATE TABLE review_votes (
+    review_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    helpful BOOLEAN NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (review_id, user_id),
+    FOREIGN KEY (review_id) REFERENCES product_reviews(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
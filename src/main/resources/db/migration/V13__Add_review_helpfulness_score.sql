@@ -0,0 +1,8 @@
+-- Helpfulness score (helpful_count - not_helpful_count) kept as a plain column: the vote flush
+-- moves it together with the two counters, so the most helpful reviews of a product are read
+-- in index order instead of computing and sorting the difference for every review.
+ALTER TABLE product_reviews ADD COLUMN helpfulness_score INT NOT NULL DEFAULT 0;
+
+UPDATE product_reviews SET helpfulness_score = COALESCE(helpful_count, 0) - COALESCE(not_helpful_count, 0);
+
+CREATE INDEX idx_product_reviews_product_helpfulness ON product_reviews(product_id, helpfulness_score, id);
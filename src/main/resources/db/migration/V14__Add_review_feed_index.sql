@@ -0,0 +1,3 @@
+-- Composite index for keyset pagination of a product's review feed, newest first.
+-- The feed seeks on (product_id, created_at, id) and reads only the next page.
+CREATE INDEX idx_product_reviews_product_created ON product_reviews(product_id, created_at, id);
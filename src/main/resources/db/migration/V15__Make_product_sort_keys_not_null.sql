@@ -0,0 +1,11 @@
+-- Keyset pagination seeks on (sort key, id) with plain comparisons, which never match NULL,
+-- and a NULL key cannot be written into a cursor. Every sortable column gets a value.
+UPDATE products SET rating = 0.0 WHERE rating IS NULL;
+UPDATE products SET view_count = 0 WHERE view_count IS NULL;
+UPDATE products SET sold_count = 0 WHERE sold_count IS NULL;
+UPDATE products SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+
+ALTER TABLE products MODIFY rating DOUBLE NOT NULL DEFAULT 0.0;
+ALTER TABLE products MODIFY view_count INT NOT NULL DEFAULT 0;
+ALTER TABLE products MODIFY sold_count INT NOT NULL DEFAULT 0;
+ALTER TABLE products MODIFY created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
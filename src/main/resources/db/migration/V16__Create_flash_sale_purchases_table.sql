@@ -0,0 +1,15 @@
+-- Create flash_sale_purchases table
+-- One row per confirmed purchase, written in the same transaction that adds its units to
+-- flash_sales.sold, so the per-buyer totals a recovered sale caps buyers with match sold.
+CREATE TABLE flash_sale_purchases (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    flash_sale_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL,
+    FOREIGN KEY (flash_sale_id) REFERENCES flash_sales(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Create indexes
+CREATE INDEX idx_flash_sale_purchases_sale_user ON flash_sale_purchases(flash_sale_id, user_id);
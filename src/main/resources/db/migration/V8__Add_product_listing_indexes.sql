@@ -0,0 +1,17 @@
+-- Composite indexes for keyset pagination of product listings.
+-- Each listing seeks on (filter columns, sort key, id) and reads only the next page.
+CREATE INDEX idx_products_active_id ON products(is_active, id);
+CREATE INDEX idx_products_active_sold ON products(is_active, sold_count, id);
+CREATE INDEX idx_products_active_viewed ON products(is_active, view_count, id);
+CREATE INDEX idx_products_active_price ON products(is_active, price, id);
+CREATE INDEX idx_products_active_rating ON products(is_active, rating, id);
+CREATE INDEX idx_products_active_created ON products(is_active, created_at, id);
+CREATE INDEX idx_products_category_active_id ON products(category_id, is_active, id);
+CREATE INDEX idx_products_brand_active_id ON products(brand, is_active, id);
+CREATE INDEX idx_products_featured_active_id ON products(is_featured, is_active, id);
+CREATE INDEX idx_products_new_active_id ON products(is_new, is_active, id);
+
+-- Single-column flag indexes are prefixes of the composite ones above
+DROP INDEX idx_products_is_active ON products;
+DROP INDEX idx_products_is_featured ON products;
+DROP INDEX idx_products_is_new ON products;
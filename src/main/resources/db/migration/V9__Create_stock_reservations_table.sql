@@ -0,0 +1,23 @@
+-- Create stock_reservations table
+-- A held line has already been taken out of products.stock_quantity; committing it counts
+-- the sale, releasing or expiring it gives the quantity back.
+CREATE TABLE stock_reservations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    reservation_key VARCHAR(36) NOT NULL,
+    product_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'HELD',
+    expires_at TIMESTAMP(3) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Create indexes
+CREATE INDEX idx_stock_reservations_key ON stock_reservations(reservation_key);
+CREATE INDEX idx_stock_reservations_status_expires ON stock_reservations(status, expires_at);
+
+-- Stock changes can follow each other within a second; product ETags are built from updated_at
+ALTER TABLE products MODIFY updated_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
@@ -0,0 +1,101 @@
+package com.hasoftware.ustore.backend;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Product list and detail endpoints run a fixed number of SQL statements, whatever the page size
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductQueryCountTest {
+
+    private static final int PRODUCTS = 60;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void insertProducts() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products WHERE sku LIKE 'QC-%'", Integer.class) > 0) {
+            return;
+        }
+        for (int i = 0; i < PRODUCTS; i++) {
+            jdbcTemplate.update("INSERT INTO products (name, description, price, brand, sku, stock_quantity, " +
+                    "category_id) VALUES (?, ?, ?, ?, ?, ?, 1)", "Query count " + i, "Description " + i, 100 + i,
+                    "Brand" + (i % 4), "QC-" + i, 10);
+            Long id = jdbcTemplate.queryForObject("SELECT id FROM products WHERE sku = ?", Long.class, "QC-" + i);
+            jdbcTemplate.update("INSERT INTO product_images (product_id, image_url, is_primary, sort_order) " +
+                    "VALUES (?, ?, TRUE, 0), (?, ?, FALSE, 1)", id, "/img/" + i + "-0.jpg", id, "/img/" + i + "-1.jpg");
+        }
+    }
+
+    @Test
+    void productPageCostsTheSameForAnyPageSize() throws Exception {
+        for (int size : List.of(1, 10, 50)) {
+            long statements = countStatements(() -> mockMvc.perform(get("/api/products")
+                    .param("page", "0").param("size", String.valueOf(size)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(size)));
+            // Page select, count and one IN query for the images of the page
+            assertEquals(3, statements, "statements for page size " + size);
+        }
+    }
+
+    @Test
+    void cursorSliceCostsTheSameForAnySize() throws Exception {
+        for (int size : List.of(1, 10, 50)) {
+            long statements = countStatements(() -> mockMvc.perform(get("/api/products")
+                    .param("cursor", "").param("size", String.valueOf(size)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(size)));
+            // Slice select and the images of the slice; keyset pagination has no count query
+            assertEquals(2, statements, "statements for slice size " + size);
+        }
+    }
+
+    @Test
+    void productDetailCostsTwoStatements() throws Exception {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM products WHERE sku LIKE 'QC-%' ORDER BY id " +
+                "LIMIT 3", Long.class);
+        for (Long id : ids) {
+            long statements = countStatements(() -> mockMvc.perform(get("/api/products/" + id))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.images.length()").value(2)));
+            // Detail with its category, then its images; the reviews are never touched
+            assertEquals(2, statements, "statements for product " + id);
+        }
+    }
+
+    private interface Request {
+        void perform() throws Exception;
+    }
+
+    private long countStatements(Request request) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        request.perform();
+        return statistics.getPrepareStatementCount();
+    }
+}
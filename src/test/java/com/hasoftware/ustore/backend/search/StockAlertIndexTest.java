@@ -0,0 +1,67 @@
+package com.hasoftware.ustore.backend.search;
+
+import com.hasoftware.ustore.backend.dto.StockTransition;
+import com.hasoftware.ustore.backend.event.StockLevelChangedEvent;
+import com.hasoftware.ustore.backend.search.StockAlertIndex.Level;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Low / out-of-stock membership follows each change, and only moves between levels are published
+class StockAlertIndexTest {
+
+    private final StockAlertIndex index = new StockAlertIndex();
+
+    private final List<StockTransition> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ApplicationEventPublisher publisher = event -> published.addAll(((StockLevelChangedEvent) event)
+                .getTransitions());
+        ReflectionTestUtils.setField(index, "eventPublisher", publisher);
+        index.rebuild(List.of(row(1, 3), row(2, 1), row(3, 0), row(4, 50), row(5, 2)));
+    }
+
+    @Test
+    void levelsAreOrderedMostUrgentFirst() {
+        assertEquals(List.of(2L, 5L, 1L), index.getProductIds(Level.LOW_STOCK, 0, 10));
+        assertEquals(List.of(5L, 1L), index.getProductIds(Level.LOW_STOCK, 1, 10));
+        assertEquals(List.of(3L), index.getProductIds(Level.OUT_OF_STOCK, 0, 10));
+        assertEquals(3, index.count(Level.LOW_STOCK));
+        assertEquals(1, index.count(Level.OUT_OF_STOCK));
+        // The first build only loads the levels
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    void onlyMovesBetweenLevelsArePublished() {
+        index.upsert(row(1, 0));
+        index.upsert(row(2, 1));
+        index.upsert(row(4, 40));
+        index.upsert(row(5, 20));
+        index.remove(3L);
+
+        assertEquals(List.of("1:LOW_STOCK>OUT_OF_STOCK", "5:LOW_STOCK>IN_STOCK", "3:OUT_OF_STOCK>null"),
+                published.stream().map(transition -> transition.getProductId() + ":" + transition.getPrevious()
+                        + ">" + transition.getCurrent()).toList());
+        assertEquals(List.of(2L), index.getProductIds(Level.LOW_STOCK, 0, 10));
+        assertEquals(List.of(1L), index.getProductIds(Level.OUT_OF_STOCK, 0, 10));
+    }
+
+    private static ProductIndexRow row(long id, int stock) {
+        ProductIndexRow row = new ProductIndexRow();
+        row.setId(id);
+        row.setName("Product " + id);
+        row.setIsActive(true);
+        row.setStockQuantity(stock);
+        row.setMinStockLevel(5);
+        return row;
+    }
+}
@@ -0,0 +1,190 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.hasoftware.ustore.backend.dto.FlashPurchaseResult;
+import com.hasoftware.ustore.backend.dto.FlashSaleRequest;
+import com.hasoftware.ustore.backend.dto.FlashSaleView;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Buyers racing for a flash sale get exactly the allocated units, every confirmed unit is already
+// written with its buyer, one buyer cannot take more than their share, and a purchase no flush
+// picks up in time is withdrawn
+@SpringBootTest
+@ActiveProfiles("test")
+class FlashSaleServiceTest {
+
+    private static final int STOCK = 100;
+
+    private static final int ALLOCATED = 20;
+
+    private static final int BUYERS = 60;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${flash-sale.max-per-user:10}")
+    private int maxPerUser;
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private Thread flusher;
+
+    @Test
+    void confirmedPurchasesAreWrittenAndNeverOversold() throws Exception {
+        Long productId = createProduct();
+        Long saleId = startSale(productId);
+        assertEquals(STOCK - ALLOCATED, stock(productId));
+        List<Long> users = new ArrayList<>(BUYERS);
+        for (int i = 0; i < BUYERS; i++) {
+            users.add(createUser());
+        }
+
+        startFlusher();
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger unwritten = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> buyers = new ArrayList<>(BUYERS);
+        for (Long user : users) {
+            buyers.add(executor.submit(() -> {
+                start.await();
+                FlashPurchaseResult result = flashSaleService.purchase(saleId, user, 1);
+                if (result.isAccepted()) {
+                    accepted.incrementAndGet();
+                    // Confirmed means written: the row already holds at least this many sold units
+                    if (sold(saleId) < 1) {
+                        unwritten.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> buyer : buyers) {
+            buyer.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        stopFlusher();
+
+        assertEquals(ALLOCATED, accepted.get());
+        assertEquals(0, unwritten.get());
+        assertEquals(ALLOCATED, sold(saleId));
+        assertEquals(ALLOCATED, (int) jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT user_id) " +
+                "FROM flash_sale_purchases WHERE flash_sale_id = ?", Integer.class, saleId));
+
+        FlashSaleView ended = flashSaleService.endSale(saleId);
+        assertEquals(ALLOCATED, ended.getSold());
+        assertEquals(STOCK - ALLOCATED, stock(productId));
+        assertEquals(ALLOCATED, (int) jdbcTemplate.queryForObject("SELECT sold_count FROM products WHERE id = ?",
+                Integer.class, productId));
+    }
+
+    @Test
+    void oneBuyerCannotDrainTheSale() throws Exception {
+        Long saleId = startSale(createProduct());
+        Long greedy = createUser();
+
+        startFlusher();
+        try {
+            for (int bought = 0; bought < maxPerUser; bought++) {
+                assertTrue(flashSaleService.purchase(saleId, greedy, 1).isAccepted());
+            }
+            assertThrows(RuntimeException.class, () -> flashSaleService.purchase(saleId, greedy, 1));
+            assertTrue(flashSaleService.purchase(saleId, createUser(), 1).isAccepted());
+        } finally {
+            stopFlusher();
+        }
+        assertEquals(maxPerUser, (int) jdbcTemplate.queryForObject("SELECT SUM(quantity) " +
+                "FROM flash_sale_purchases WHERE flash_sale_id = ? AND user_id = ?", Integer.class, saleId, greedy));
+        flashSaleService.endSale(saleId);
+    }
+
+    @Test
+    void unwrittenPurchaseIsWithdrawnAfterTimeout() {
+        Long productId = createProduct();
+        Long saleId = startSale(productId);
+
+        // No flush runs, so the buyer gives up after the confirm timeout and the units go back on sale
+        assertThrows(RuntimeException.class, () -> flashSaleService.purchase(saleId, createUser(), 2));
+        assertEquals(ALLOCATED, flashSaleService.getSale(saleId).getRemaining());
+        flashSaleService.flush();
+        assertEquals(0, sold(saleId));
+
+        flashSaleService.endSale(saleId);
+        assertEquals(STOCK, stock(productId));
+    }
+
+    // The scheduled flush is off in tests; buyers wait until one of these flushes writes their purchase
+    private void startFlusher() {
+        flushing.set(true);
+        flusher = new Thread(() -> {
+            while (flushing.get()) {
+                flashSaleService.flush();
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        flusher.start();
+    }
+
+    private void stopFlusher() throws InterruptedException {
+        flushing.set(false);
+        flusher.join();
+    }
+
+    private Long createUser() {
+        String username = "fs-" + UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO users (username, email, password, full_name) VALUES (?, ?, 'x', ?)",
+                username, username + "@test", username);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+    }
+
+    private Long createProduct() {
+        String sku = "FS-" + UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO products (name, price, sku, stock_quantity) VALUES (?, 10, ?, ?)", sku, sku,
+                STOCK);
+        return jdbcTemplate.queryForObject("SELECT id FROM products WHERE sku = ?", Long.class, sku);
+    }
+
+    private Long startSale(Long productId) {
+        FlashSaleRequest request = new FlashSaleRequest();
+        request.setProductId(productId);
+        request.setQuantity(ALLOCATED);
+        return flashSaleService.startSale(request).getId();
+    }
+
+    private int stock(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class,
+                productId);
+    }
+
+    private int sold(Long saleId) {
+        return jdbcTemplate.queryForObject("SELECT sold FROM flash_sales WHERE id = ?", Integer.class, saleId);
+    }
+}
@@ -0,0 +1,133 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.hasoftware.ustore.backend.dto.ReservationItem;
+import com.hasoftware.ustore.backend.dto.ReservationRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Thousands of buyers reserve the same products at once: no unit is held twice and stock never goes below zero
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryServiceConcurrencyTest {
+
+    private static final int BUYERS = 4000;
+
+    private static final int THREADS = 64;
+
+    private static final int SINGLE_STOCK = 150;
+
+    private static final int CART_STOCK = 90;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelBuyersNeverOversell() throws Exception {
+        Long userId = createUser();
+        Long single = createProduct("STRESS-SINGLE", SINGLE_STOCK);
+        Long cart = createProduct("STRESS-CART", CART_STOCK);
+
+        // Even buyers take one unit of the single product; odd buyers take a cart with one of each
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Map<String, Integer> failures = new ConcurrentHashMap<>();
+        AtomicBoolean negativeSeen = new AtomicBoolean();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread monitor = new Thread(() -> {
+            while (running.get()) {
+                Integer lowest = jdbcTemplate.queryForObject("SELECT MIN(stock_quantity) FROM products " +
+                        "WHERE id IN (?, ?)", Integer.class, single, cart);
+                if (lowest != null && lowest < 0) {
+                    negativeSeen.set(true);
+                }
+            }
+        });
+        monitor.start();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> buyers = new ArrayList<>(BUYERS);
+        for (int i = 0; i < BUYERS; i++) {
+            List<ReservationItem> items = i % 2 == 0 ? List.of(new ReservationItem(single, 1))
+                    : List.of(new ReservationItem(single, 1), new ReservationItem(cart, 1));
+            buyers.add(executor.submit(() -> {
+                start.await();
+                ReservationRequest request = new ReservationRequest();
+                request.setItems(items);
+                try {
+                    inventoryService.reserve(userId, request);
+                    held.incrementAndGet();
+                } catch (RuntimeException e) {
+                    if (e.getMessage() != null && e.getMessage().startsWith("Insufficient stock")) {
+                        rejected.incrementAndGet();
+                    } else {
+                        failures.merge(String.valueOf(e.getMessage()), 1, Integer::sum);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> buyer : buyers) {
+            buyer.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        running.set(false);
+        monitor.join();
+
+        assertTrue(failures.isEmpty(), "unexpected failures: " + failures);
+        assertFalse(negativeSeen.get(), "stock went below zero");
+        assertEquals(BUYERS, held.get() + rejected.get());
+        // Every unit of the single product is held exactly once, and no more
+        assertEquals(SINGLE_STOCK, held.get());
+        assertEquals(0, stock(single));
+        assertEquals(SINGLE_STOCK, heldQuantity(single));
+        // Carts are all or nothing: the cart product moved only with successful carts
+        assertEquals(CART_STOCK - heldQuantity(cart), stock(cart));
+        assertTrue(heldQuantity(cart) <= CART_STOCK);
+    }
+
+    private Long createUser() {
+        jdbcTemplate.update("INSERT INTO users (username, email, password) VALUES ('stress', 'stress@test', 'x')");
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'stress'", Long.class);
+    }
+
+    private Long createProduct(String sku, int stock) {
+        jdbcTemplate.update("INSERT INTO products (name, price, sku, stock_quantity) VALUES (?, 10, ?, ?)", sku, sku,
+                stock);
+        return jdbcTemplate.queryForObject("SELECT id FROM products WHERE sku = ?", Long.class, sku);
+    }
+
+    private int stock(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class,
+                productId);
+    }
+
+    private int heldQuantity(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(quantity), 0) FROM stock_reservations " +
+                "WHERE product_id = ? AND status = 'HELD'", Integer.class, productId);
+    }
+}
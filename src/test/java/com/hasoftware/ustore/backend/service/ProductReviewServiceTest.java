@@ -0,0 +1,153 @@
+package com.hasoftware.ustore.backend.service;
+
+import com.hasoftware.ustore.backend.dto.CursorSlice;
+import com.hasoftware.ustore.backend.dto.ReviewRequest;
+import com.hasoftware.ustore.backend.dto.ReviewSummary;
+import com.hasoftware.ustore.backend.dto.ReviewView;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Review writes keep the product's rating statistics, votes are written behind, and both
+// review feeds page with cursors and carry their authors
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductReviewServiceTest {
+
+    @Autowired
+    private ProductReviewService productReviewService;
+
+    @Autowired
+    private ReviewVoteService reviewVoteService;
+
+    @Autowired
+    private RatingReconciler ratingReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void ratingStatisticsFollowReviewWrites() {
+        Long product = createProduct();
+        Long ann = createUser("ann");
+        Long bob = createUser("bob");
+        Long cid = createUser("cid");
+
+        productReviewService.createReview(product, ann, review(5));
+        ReviewView bobs = productReviewService.createReview(product, bob, review(4));
+        ReviewView cids = productReviewService.createReview(product, cid, review(2));
+        assertRating(product, 3, 11.0 / 3);
+
+        productReviewService.updateReview(product, cids.getId(), cid, review(3));
+        productReviewService.deleteReview(product, bobs.getId(), bob, false);
+        assertRating(product, 2, 4.0);
+
+        ReviewSummary summary = productReviewService.getReviewSummary(product);
+        assertEquals(2, summary.getCount());
+        assertEquals(4.0, summary.getAverage(), 1e-9);
+        assertEquals(Map.of(1, 0, 2, 0, 3, 1, 4, 0, 5, 1), summary.getDistribution());
+
+        // A review removed behind the service's back is picked up by the reconciler
+        jdbcTemplate.update("DELETE FROM product_reviews WHERE id = ?", cids.getId());
+        ratingReconciler.reconcile();
+        assertRating(product, 1, 5.0);
+    }
+
+    @Test
+    void votesOrderTheMostHelpfulFeed() {
+        Long product = createProduct();
+        Long ann = createUser("ann");
+        Long bob = createUser("bob");
+        Long cid = createUser("cid");
+        ReviewView anns = productReviewService.createReview(product, ann, review(5));
+        ReviewView bobs = productReviewService.createReview(product, bob, review(1));
+        ReviewView cids = productReviewService.createReview(product, cid, review(3));
+
+        assertTrue(reviewVoteService.vote(product, anns.getId(), bob, true));
+        assertTrue(reviewVoteService.vote(product, anns.getId(), cid, true));
+        assertTrue(reviewVoteService.vote(product, bobs.getId(), ann, true));
+        // Changing a vote moves it between the counters; repeating it changes nothing
+        assertTrue(reviewVoteService.vote(product, bobs.getId(), ann, false));
+        assertFalse(reviewVoteService.vote(product, bobs.getId(), ann, false));
+        reviewVoteService.flush();
+
+        assertEquals(List.of(2, 0, 2), counters(anns.getId()));
+        assertEquals(List.of(0, 1, -1), counters(bobs.getId()));
+
+        List<Long> order = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorSlice<ReviewView> slice = productReviewService.getMostHelpfulReviews(product, cursor, 1);
+            slice.getContent().forEach(view -> {
+                assertTrue(view.getAuthor() != null && view.getAuthor().getUsername().startsWith("rv-"));
+                order.add(view.getId());
+            });
+            cursor = slice.getNextCursor();
+        } while (cursor != null);
+        assertEquals(List.of(anns.getId(), cids.getId(), bobs.getId()), order);
+    }
+
+    @Test
+    void recentFeedPagesNewestFirst() {
+        Long product = createProduct();
+        List<Long> ids = new ArrayList<>();
+        for (String name : List.of("ann", "bob", "cid", "dee", "eve")) {
+            ids.add(0, productReviewService.createReview(product, createUser(name), review(4)).getId());
+        }
+
+        List<Long> order = new ArrayList<>();
+        CursorSlice<ReviewView> slice = productReviewService.getRecentReviews(product, null, 2);
+        order.addAll(slice.getContent().stream().map(ReviewView::getId).toList());
+        while (slice.getNextCursor() != null) {
+            slice = productReviewService.getRecentReviews(product, slice.getNextCursor(), 2);
+            order.addAll(slice.getContent().stream().map(ReviewView::getId).toList());
+        }
+        assertEquals(ids, order);
+        assertNull(slice.getNextCursor());
+    }
+
+    private void assertRating(Long product, int count, double average) {
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT rating, review_count FROM products WHERE id = ?",
+                product);
+        assertEquals(count, ((Number) row.get("review_count")).intValue());
+        assertEquals(average, ((Number) row.get("rating")).doubleValue(), 1e-9);
+    }
+
+    private List<Integer> counters(Long reviewId) {
+        return jdbcTemplate.queryForObject("SELECT helpful_count, not_helpful_count, helpfulness_score " +
+                "FROM product_reviews WHERE id = ?", (resultSet, rowNum) -> List.of(resultSet.getInt(1),
+                resultSet.getInt(2), resultSet.getInt(3)), reviewId);
+    }
+
+    private static ReviewRequest review(int rating) {
+        ReviewRequest request = new ReviewRequest();
+        request.setRating(rating);
+        request.setComment("Rated " + rating);
+        return request;
+    }
+
+    private Long createUser(String name) {
+        String username = "rv-" + name + "-" + UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO users (username, email, password, full_name) VALUES (?, ?, 'x', ?)",
+                username, username + "@test", name);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+    }
+
+    private Long createProduct() {
+        String sku = "RV-" + UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO products (name, price, sku, stock_quantity) VALUES (?, 10, ?, 5)", sku, sku);
+        return jdbcTemplate.queryForObject("SELECT id FROM products WHERE sku = ?", Long.class, sku);
+    }
+}